@@ -0,0 +1,37 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+import cvrp_population.Location;
+import cvrp_population.ProblemInstance;
+import cvrp_population.Util;
+
+public abstract class BenchmarkInstances {
+
+	public static final long SEED = 42;
+	public static final int MAX_VEHICLES_CAPACITY = 100;
+
+	private static final String DATA_DIR = System.getProperty("cvrp.data", "../data");
+	private static final String SYNTHETIC_PREFIX = "R";
+	private static final int SYNTHETIC_GRID_SIZE = 1000;
+	private static final int SYNTHETIC_MAX_DEMAND = 30;
+
+	// "A3205" is read from the data directory, "R1000" is a synthetic instance of 1000 customers
+	public static ProblemInstance load(String name) {
+		if (name.startsWith(SYNTHETIC_PREFIX)) {
+			return new ProblemInstance(createSynthetic(Integer.parseInt(name.substring(SYNTHETIC_PREFIX.length()))), MAX_VEHICLES_CAPACITY);
+		}
+		return new ProblemInstance(Util.readData(DATA_DIR + "/" + name + ".txt"), MAX_VEHICLES_CAPACITY);
+	}
+
+	private static ArrayList<Location> createSynthetic(int nbCustomers) {
+		SplittableRandom rand = new SplittableRandom(SEED);
+		ArrayList<Location> locations = new ArrayList<>(nbCustomers + 1);
+		locations.add(new Location(0, SYNTHETIC_GRID_SIZE / 2, SYNTHETIC_GRID_SIZE / 2, 0));
+		for (int id = 1; id <= nbCustomers; id++) {
+			locations.add(new Location(id, rand.nextInt(SYNTHETIC_GRID_SIZE), rand.nextInt(SYNTHETIC_GRID_SIZE), 1 + rand.nextInt(SYNTHETIC_MAX_DEMAND)));
+		}
+		return locations;
+	}
+}
@@ -0,0 +1,53 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cvrp_population.GeneticAlgorithm;
+import cvrp_population.Individual;
+import cvrp_population.ProblemInstance;
+
+// A full descent from a random individual, the same start is reused at every invocation
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class DescentBenchmark {
+
+	@Param({"A3205", "A4506", "A6409", "A8010", "R1000", "R5000"})
+	private String instanceName;
+
+	@Param({"false", "true"})
+	private boolean isFirstImprovement;
+
+	private GeneticAlgorithm ga;
+	private Individual start;
+
+	@Setup
+	public void setup() {
+		ProblemInstance instance = BenchmarkInstances.load(instanceName);
+		ga = new GeneticAlgorithm(instance, 1, 1, 0, 0.01, true, true, true, false, new SplittableRandom(BenchmarkInstances.SEED));
+		ga.setFirstImprovement(isFirstImprovement);
+		ga.init();
+		start = ga.getPopulation().get(0);
+	}
+
+	@Benchmark
+	public Individual descent() {
+		return ga.descent(start);
+	}
+}
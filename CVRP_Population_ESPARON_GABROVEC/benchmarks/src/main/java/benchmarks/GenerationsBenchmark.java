@@ -0,0 +1,67 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cvrp_population.GeneticAlgorithm;
+import cvrp_population.ProblemInstance;
+
+// Generations of exec, the population is reinitialized with the same seed before each iteration
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class GenerationsBenchmark {
+
+	@Param({"A3205", "A4506", "A6409", "A8010", "R1000", "R5000"})
+	private String instanceName;
+
+	@Param({"10"})
+	private int nbIndividuals;
+
+	@Param({"true", "false"})
+	private boolean isHybrid;
+
+	@Param({"true", "false"})
+	private boolean isHGreX;
+
+	@Param({"true", "false"})
+	private boolean isOptimalSplit;
+
+	private ProblemInstance instance;
+	private GeneticAlgorithm ga;
+	private int generation;
+
+	@Setup(Level.Trial)
+	public void setupTrial() {
+		instance = BenchmarkInstances.load(instanceName);
+	}
+
+	@Setup(Level.Iteration)
+	public void setupIteration() {
+		ga = new GeneticAlgorithm(instance, Long.MAX_VALUE, nbIndividuals, 0.01, 0.01, true, isHGreX, isHybrid, isOptimalSplit, new SplittableRandom(BenchmarkInstances.SEED));
+		ga.init();
+		generation = 0;
+	}
+
+	@Benchmark
+	public double execGeneration() {
+		ga.execGeneration(++generation);
+		return ga.getBestCost();
+	}
+}
@@ -0,0 +1,91 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cvrp_population.GeneticAlgorithm;
+import cvrp_population.Individual;
+import cvrp_population.ProblemInstance;
+import operators.CrossoverOperator;
+import operators.MutationOperator;
+import operators.SplitOperator;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class OperatorsBenchmark {
+
+	@Param({"A3205", "A4506", "A6409", "A8010", "R1000", "R5000"})
+	private String instanceName;
+
+	private ProblemInstance instance;
+	private GeneticAlgorithm ga;
+	private CrossoverOperator crossoverOperator;
+	private MutationOperator mutationOperator;
+	private SplitOperator splitOperator;
+	private Individual p1, p2;
+
+	@Setup
+	public void setup() {
+		instance = BenchmarkInstances.load(instanceName);
+		ga = new GeneticAlgorithm(instance, 1, 2, 0, 0.01, true, true, false, false, new SplittableRandom(BenchmarkInstances.SEED));
+		ga.init();
+		ArrayList<Individual> population = ga.getPopulation();
+		p1 = population.get(0);
+		p2 = population.get(1);
+		crossoverOperator = new CrossoverOperator(ga, instance);
+		mutationOperator = new MutationOperator(ga);
+		splitOperator = new SplitOperator(instance);
+	}
+
+	@Benchmark
+	public Individual objectiveFunction() {
+		return new Individual(instance, p1.getTour(), p1.getRoutesStarts());
+	}
+
+	@Benchmark
+	public Individual reconstruct() {
+		return ga.reconstruct(p1.getTour());
+	}
+
+	@Benchmark
+	public int[] split() {
+		return splitOperator.split(p1.getTour());
+	}
+
+	@Benchmark
+	public ArrayList<Individual> oXCrossover() {
+		return crossoverOperator.oXCrossover(p1, p2);
+	}
+
+	@Benchmark
+	public Individual hGreXCrossover() {
+		return crossoverOperator.hGreXCrossover(p1, p2);
+	}
+
+	@Benchmark
+	public Individual inversionMutation() {
+		return mutationOperator.inversionMutation(p1);
+	}
+
+	@Benchmark
+	public Individual displacementMutation() {
+		return mutationOperator.displacementMutation(p1);
+	}
+}
@@ -0,0 +1,110 @@
+package cvrp_population;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// Flight Recorder events of the generations and of the run, recorded with -XX:StartFlightRecording and free when no recording enables them
+// jdk.jfr does not exist in Java 8: this folder is only compiled by the "jfr" profile of the pom (JDK 11 and later) and the class is loaded by name
+public class JfrMetricsListener implements MetricsListener {
+
+	@Override
+	public void onGeneration(int generation, double bestCost, GenerationMetrics generationMetrics, RunMetrics runMetrics) {
+		GenerationEvent event = new GenerationEvent();
+		if (!event.isEnabled()) {
+			return;
+		}
+		event.generation = generation;
+		event.bestCost = bestCost;
+		event.selection = generationMetrics.getPhaseNanos(GenerationMetrics.SELECTION);
+		event.crossover = generationMetrics.getPhaseNanos(GenerationMetrics.CROSSOVER);
+		event.mutation = generationMetrics.getPhaseNanos(GenerationMetrics.MUTATION);
+		event.decode = generationMetrics.getPhaseNanos(GenerationMetrics.DECODE);
+		event.descent = generationMetrics.getPhaseNanos(GenerationMetrics.DESCENT);
+		event.replacement = generationMetrics.getPhaseNanos(GenerationMetrics.REPLACEMENT);
+		event.acceptedChildren = generationMetrics.getNbAcceptedChildren();
+		event.rejectedChildren = generationMetrics.getNbRejectedChildren();
+		event.descentPasses = generationMetrics.getNbDescentPasses();
+		event.evaluatedMoves = generationMetrics.getNbEvaluatedMoves();
+		event.commit();
+	}
+
+	@Override
+	public void onRunEnd(double bestCost, RunMetrics runMetrics) {
+		RunEvent event = new RunEvent();
+		if (!event.isEnabled()) {
+			return;
+		}
+		event.bestCost = bestCost;
+		event.generations = runMetrics.getNbGenerations();
+		event.evaluations = runMetrics.getNbEvaluations();
+		event.acceptedChildren = runMetrics.getNbAcceptedChildren();
+		event.rejectedChildren = runMetrics.getNbRejectedChildren();
+		event.descentPasses = runMetrics.getNbDescentPasses();
+		event.descentMoves = runMetrics.getNbDescentMoves();
+		event.movesPerSecond = runMetrics.getMovesPerSecond();
+		event.commit();
+	}
+
+	@Name("cvrp.Generation")
+	@Label("Gnration")
+	@Category("CVRP")
+	static class GenerationEvent extends Event {
+
+		@Label("Gnration")
+		int generation;
+		@Label("Meilleur cot")
+		double bestCost;
+		@Label("Slection")
+		@Timespan
+		long selection;
+		@Label("Croisement")
+		@Timespan
+		long crossover;
+		@Label("Mutation")
+		@Timespan
+		long mutation;
+		@Label("Dcoupage")
+		@Timespan
+		long decode;
+		@Label("Descente")
+		@Timespan
+		long descent;
+		@Label("Remplacement")
+		@Timespan
+		long replacement;
+		@Label("Enfants accepts")
+		long acceptedChildren;
+		@Label("Enfants rejets")
+		long rejectedChildren;
+		@Label("Passes de descente")
+		long descentPasses;
+		@Label("Mouvements valus")
+		long evaluatedMoves;
+	}
+
+	@Name("cvrp.Run")
+	@Label("Excution")
+	@Category("CVRP")
+	static class RunEvent extends Event {
+
+		@Label("Meilleur cot")
+		double bestCost;
+		@Label("Gnrations")
+		long generations;
+		@Label("valuations")
+		long evaluations;
+		@Label("Enfants accepts")
+		long acceptedChildren;
+		@Label("Enfants rejets")
+		long rejectedChildren;
+		@Label("Passes de descente")
+		long descentPasses;
+		@Label("Mouvements appliqus")
+		long descentMoves;
+		@Label("Mouvements valus par seconde")
+		double movesPerSecond;
+	}
+}
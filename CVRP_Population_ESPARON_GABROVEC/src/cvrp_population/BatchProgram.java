@@ -0,0 +1,161 @@
+package cvrp_population;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Usage : BatchProgram <directory | glob> [results.csv | results.json] [nbThreads]
+public class BatchProgram {
+
+	private static final String DEFAULT_GLOB = "*.{txt,vrp,cvrpb}";
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length == 0) {
+			System.err.println("Usage : BatchProgram <rpertoire | glob> [rsultats.csv | rsultats.json] [nbThreads]");
+			System.exit(1);
+		}
+		ArrayList<Path> instancesPaths = listInstances(args[0]);
+		String outputFile = args.length > 1 ? args[1] : null;
+		int nbThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+		ExecutorService pool = Executors.newFixedThreadPool(nbThreads);
+		ArrayList<Future<BatchResult>> futures = new ArrayList<>(instancesPaths.size());
+		ArrayList<BatchResult> results = new ArrayList<>(instancesPaths.size());
+		try {
+			for (Path instancePath : instancesPaths) {
+				futures.add(pool.submit(() -> solve(instancePath)));
+			}
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					results.add(futures.get(i).get());
+				} catch (ExecutionException e) {
+					System.err.println(instancesPaths.get(i).getFileName() + " : " + e.getCause());
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+
+		if (outputFile == null) {
+			writeCsv(results, System.out);
+		} else {
+			try (PrintStream out = new PrintStream(outputFile, "UTF-8")) {
+				if (outputFile.endsWith(".json")) {
+					writeJson(results, out);
+				} else {
+					writeCsv(results, out);
+				}
+			}
+		}
+	}
+
+	private static ArrayList<Path> listInstances(String directoryOrGlob) throws IOException {
+		Path path = Paths.get(directoryOrGlob), directory;
+		String glob;
+		if (Files.isDirectory(path)) {
+			directory = path;
+			glob = DEFAULT_GLOB;
+		} else {
+			directory = path.getParent() != null ? path.getParent() : Paths.get(".");
+			glob = path.getFileName().toString();
+		}
+		// An instance converted by InstanceConverter is solved once, from its ".cvrpb" file
+		TreeMap<String, Path> instancesByName = new TreeMap<>();
+		String fileName;
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+			for (Path instancePath : stream) {
+				if (Files.isRegularFile(instancePath)) {
+					fileName = instancePath.getFileName().toString();
+					instancesByName.merge(fileName.contains(".") ? fileName.substring(0, fileName.lastIndexOf('.')) : fileName, instancePath,
+							(kept, other) -> other.toString().toLowerCase().endsWith(BinaryInstanceFormat.EXTENSION) ? other : kept);
+				}
+			}
+		}
+		ArrayList<Path> instancesPaths = new ArrayList<>(instancesByName.values());
+		Collections.sort(instancesPaths);
+		return instancesPaths;
+	}
+
+	private static BatchResult solve(Path instancePath) {
+		long start = System.nanoTime();
+		ProblemInstance instance = InstanceReader.read(instancePath.toString(), Program.MAX_VEHICLES_CAPACITY);
+		GeneticAlgorithm ga = new GeneticAlgorithm(instance, Program.NB_GENERATIONS, Program.NB_INDIVIDUALS,
+				Program.P_MUTATION, Program.DIFF_RATE, Program.IS_TOURNAMENT, Program.IS_HGREX, Program.IS_HYBRID, Program.IS_OPTIMAL_SPLIT);
+		ga.setFirstImprovement(Program.IS_FIRST_IMPROVEMENT);
+		ga.init();
+		for (int i = 1; i <= Program.NB_GENERATIONS; i++) {
+			ga.execGeneration(i);
+		}
+		return new BatchResult(instancePath.getFileName().toString(), instance.getNbCustomers(), ga.getBestCost(),
+				ga.getBestIndividual().getNbVehicles(), System.nanoTime() - start, ga.getNbEvaluations());
+	}
+
+	private static void writeCsv(ArrayList<BatchResult> results, PrintStream out) {
+		out.println("instance;customers;best_cost;vehicles;wall_time_ms;evaluations;evaluations_per_second");
+		for (BatchResult r : results) {
+			out.println(String.format(Locale.ROOT, "%s;%d;%.3f;%d;%d;%d;%.1f",
+					r.instance, r.nbCustomers, r.bestCost, r.nbVehicles, r.wallTimeNanos / 1000000, r.nbEvaluations, r.getEvaluationsPerSecond()));
+		}
+	}
+
+	private static void writeJson(ArrayList<BatchResult> results, PrintStream out) {
+		out.println("[");
+		for (int i = 0; i < results.size(); i++) {
+			BatchResult r = results.get(i);
+			out.println(String.format(Locale.ROOT, "  {\"instance\": \"%s\", \"customers\": %d, \"best_cost\": %.3f, \"vehicles\": %d, "
+					+ "\"wall_time_ms\": %d, \"evaluations\": %d, \"evaluations_per_second\": %.1f}%s",
+					escapeJson(r.instance), r.nbCustomers, r.bestCost, r.nbVehicles, r.wallTimeNanos / 1000000, r.nbEvaluations,
+					r.getEvaluationsPerSecond(), i < results.size() - 1 ? "," : ""));
+		}
+		out.println("]");
+	}
+
+	// Quotes, backslashes and control characters of a file name
+	private static String escapeJson(String value) {
+		StringBuilder escaped = new StringBuilder(value.length());
+		for (char c : value.toCharArray()) {
+			if (c == '"' || c == '\\') {
+				escaped.append('\\').append(c);
+			} else if (c < 0x20) {
+				escaped.append(String.format("\\u%04x", (int) c));
+			} else {
+				escaped.append(c);
+			}
+		}
+		return escaped.toString();
+	}
+
+	private static class BatchResult {
+
+		private final String instance;
+		private final int nbCustomers;
+		private final double bestCost;
+		private final int nbVehicles;
+		private final long wallTimeNanos;
+		private final long nbEvaluations;
+
+		private BatchResult(String instance, int nbCustomers, double bestCost, int nbVehicles, long wallTimeNanos, long nbEvaluations) {
+			this.instance = instance;
+			this.nbCustomers = nbCustomers;
+			this.bestCost = bestCost;
+			this.nbVehicles = nbVehicles;
+			this.wallTimeNanos = wallTimeNanos;
+			this.nbEvaluations = nbEvaluations;
+		}
+
+		private double getEvaluationsPerSecond() {
+			return wallTimeNanos == 0 ? 0 : nbEvaluations / (wallTimeNanos / 1e9);
+		}
+	}
+}
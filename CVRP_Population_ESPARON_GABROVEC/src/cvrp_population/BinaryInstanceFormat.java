@@ -0,0 +1,129 @@
+package cvrp_population;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.Buffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+// ".cvrpb" files: header, then x, y and demand of each location by id, then optionally the distance matrix by rows
+// Little endian so that the mapped distances are read without any byte swapping on common hardware
+// The instance reads its distances from the mapped rows: the pages are loaded on first access and shared through the page cache
+// by the processes solving the same file, only the locations and the nearest neighbors are built on the heap
+public abstract class BinaryInstanceFormat {
+
+	public static final String EXTENSION = ".cvrpb";
+
+	private static final int MAGIC = 0x43565242;
+	private static final int VERSION = 1;
+	private static final int HAS_DISTANCES = 1;
+	private static final int ROUNDED_DISTANCES = 2;
+	// Magic, version, number of locations, capacity, flags
+	private static final int HEADER_SIZE = 5 * Integer.BYTES;
+	private static final int CHUNK_SIZE = 1 << 20;
+
+	// Written next to the file then renamed: the processes still mapping the previous file keep reading it intact
+	public static void write(ProblemInstance instance, Path path, boolean withDistances) {
+		int nbLocations = instance.getNbLocations();
+		ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		Location l;
+		Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(nbLocations).putInt(instance.getMaxCapacity()).putInt((withDistances ? HAS_DISTANCES : 0) | (instance.isRoundedDistances() ? ROUNDED_DISTANCES : 0));
+			for (int id = 0; id < nbLocations; id++) {
+				flushIfFull(channel, buffer, 3 * Integer.BYTES);
+				l = instance.getLocation(id);
+				buffer.putInt(l.getX()).putInt(l.getY()).putInt(l.getNbOrders());
+			}
+			if (withDistances) {
+				while (buffer.position() % Double.BYTES != 0) {
+					buffer.put((byte) 0);
+				}
+				for (int i = 0; i < nbLocations; i++) {
+					for (int j = 0; j < nbLocations; j++) {
+						flushIfFull(channel, buffer, Double.BYTES);
+						buffer.putDouble(instance.getDistance(i, j));
+					}
+				}
+			}
+			flushIfFull(channel, buffer, CHUNK_SIZE);
+		} catch (IOException e) {
+			throw new UncheckedIOException("criture impossible de " + path, e);
+		}
+		try {
+			Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new UncheckedIOException("criture impossible de " + path, e);
+		}
+	}
+
+	private static void flushIfFull(FileChannel channel, ByteBuffer buffer, int nbBytesNeeded) throws IOException {
+		if (buffer.remaining() < nbBytesNeeded) {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+	}
+
+	// The mappings stay valid once the channel is closed, until the instance is garbage collected
+	public static ProblemInstance read(Path path) {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), HEADER_SIZE));
+			header.order(ByteOrder.LITTLE_ENDIAN);
+			if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+				throw new IllegalArgumentException(path + " n'est pas une instance binaire");
+			}
+			if (header.getInt() != VERSION) {
+				throw new IllegalArgumentException(path + " : version non supporte");
+			}
+			int nbLocations = header.getInt(), maxCapacity = header.getInt(), flags = header.getInt();
+			long locationsSize = 3L * Integer.BYTES * nbLocations, distancesOffset = (HEADER_SIZE + locationsSize + Double.BYTES - 1) / Double.BYTES * Double.BYTES;
+			long expectedSize = (flags & HAS_DISTANCES) != 0 ? distancesOffset + (long) nbLocations * nbLocations * Double.BYTES : HEADER_SIZE + locationsSize;
+			if (nbLocations < 1 || channel.size() != expectedSize) {
+				throw new IllegalArgumentException(path + " : taille de fichier incohrente");
+			}
+			ProblemInstance.getDistancesLength(nbLocations);
+
+			MappedByteBuffer body = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, locationsSize);
+			body.order(ByteOrder.LITTLE_ENDIAN);
+			ArrayList<Location> locations = new ArrayList<>(nbLocations);
+			for (int id = 0; id < nbLocations; id++) {
+				locations.add(new Location(id, body.getInt(), body.getInt(), body.getInt()));
+			}
+			if ((flags & HAS_DISTANCES) == 0) {
+				return new ProblemInstance(locations, maxCapacity, (flags & ROUNDED_DISTANCES) != 0, null);
+			}
+
+			// Mapped by chunks of rows, a single mapping cannot exceed 2 GB, then sliced into one buffer per row
+			DoubleBuffer[] distancesRows = new DoubleBuffer[nbLocations];
+			DoubleBuffer chunk;
+			Buffer view;
+			long rowSize = (long) nbLocations * Double.BYTES;
+			int rowsPerChunk = (int) Math.max(1, Integer.MAX_VALUE / rowSize), nbRows;
+			for (int row = 0; row < nbLocations; row += rowsPerChunk) {
+				nbRows = Math.min(rowsPerChunk, nbLocations - row);
+				body = channel.map(FileChannel.MapMode.READ_ONLY, distancesOffset + row * rowSize, nbRows * rowSize);
+				view = chunk = body.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+				for (int i = 0; i < nbRows; i++) {
+					// Through Buffer, whose limit and position methods also exist on Java 8
+					view.limit((i + 1) * nbLocations);
+					view.position(i * nbLocations);
+					distancesRows[row + i] = chunk.slice();
+				}
+			}
+			return ProblemInstance.withMappedDistances(locations, maxCapacity, (flags & ROUNDED_DISTANCES) != 0, distancesRows);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Lecture impossible de " + path, e);
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package cvrp_population;
+
+// Measures of one generation, filled by the thread running it and reused for its next generations
+public class GenerationMetrics {
+
+	public static final int SELECTION = 0;
+	public static final int CROSSOVER = 1;
+	public static final int MUTATION = 2;
+	public static final int DECODE = 3;
+	public static final int DESCENT = 4;
+	public static final int REPLACEMENT = 5;
+	public static final String[] PHASES_NAMES = {"Slection", "Croisement", "Mutation", "Dcoupage", "Descente", "Remplacement"};
+
+	private long[] phasesNanos = new long[PHASES_NAMES.length];
+	private long nbEvaluations;
+	private long nbAcceptedChildren;
+	private long nbRejectedChildren;
+	private long nbDescentPasses;
+	private long nbDescentMoves;
+	private long nbEvaluatedMoves;
+
+	void reset() {
+		for (int phase = 0; phase < phasesNanos.length; phase++) {
+			phasesNanos[phase] = 0;
+		}
+		nbEvaluations = nbAcceptedChildren = nbRejectedChildren = nbDescentPasses = nbDescentMoves = nbEvaluatedMoves = 0;
+	}
+
+	void addPhaseNanos(int phase, long nanos) {
+		phasesNanos[phase] += nanos;
+	}
+
+	void addEvaluation() {
+		nbEvaluations++;
+	}
+
+	void addChild(boolean isAccepted) {
+		if (isAccepted) {
+			nbAcceptedChildren++;
+		} else {
+			nbRejectedChildren++;
+		}
+	}
+
+	void addDescent(long nbPasses, long nbMoves, long nbEvaluatedMoves) {
+		nbDescentPasses += nbPasses;
+		nbDescentMoves += nbMoves;
+		this.nbEvaluatedMoves += nbEvaluatedMoves;
+	}
+
+	public long getPhaseNanos(int phase) {
+		return phasesNanos[phase];
+	}
+
+	public long getNbEvaluations() {
+		return nbEvaluations;
+	}
+
+	public long getNbAcceptedChildren() {
+		return nbAcceptedChildren;
+	}
+
+	// Duplicates and children not better than the individual they could replace
+	public long getNbRejectedChildren() {
+		return nbRejectedChildren;
+	}
+
+	public long getNbDescentPasses() {
+		return nbDescentPasses;
+	}
+
+	// Improving moves applied
+	public long getNbDescentMoves() {
+		return nbDescentMoves;
+	}
+
+	public long getNbEvaluatedMoves() {
+		return nbEvaluatedMoves;
+	}
+}
@@ -1,39 +1,72 @@
 package cvrp_population;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Random;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import operators.CrossoverOperator;
+import operators.DescentOperator;
 import operators.MutationOperator;
+import operators.RepairOperator;
 import operators.SelectionOperator;
+import operators.SplitOperator;
 import operators.TransformationOperator;
 
 public class GeneticAlgorithm {
 
-	private CrossoverOperator crossoverOperator;
-	private MutationOperator mutationOperator;
-	private SelectionOperator selectionOperator;
-	private TransformationOperator transformationOperator;
+	// Operators of the sequential run, each asynchronous worker has its own copy
+	private Worker mainWorker;
+	private ThreadLocal<Worker> currentWorker;
+	private int nbWorkers;
+	// Selection and duplicates checks read the population, replacements write it
+	// A single lock rather than striped slots or CAS: a replacement also moves the cost index and the best individual,
+	// and it is held for microseconds against the milliseconds of the unlocked crossover and descent of each child
+	private ReentrantReadWriteLock populationLock;
 	private long nbGenerations;
 	private int nbIndividuals;
 	private double pMutation;
-	private int maxCapacity;
 	private double diffRate;
 	private boolean isTournament;
 	private boolean isHGreX;
 	private boolean isHybrid;
-	private ArrayList<Location> locations;
-	private ArrayList<ArrayList<Vehicle>> population;
-    private ArrayList<Vehicle> bestIndividual;
-    private double bestCost;
+	private boolean isOptimalSplit;
+	private ProblemInstance instance;
+	private ArrayList<Individual> population;
+	private PopulationIndex populationIndex;
+    private Individual bestIndividual;
+    private volatile double bestCost;
+    private volatile int lastImprovementGeneration;
     private TreeMap<Integer, Double> bestCostsHistory;
-	private Random rand;
+	private AtomicLong nbEvaluations;
+	// Duplicates dropped before their descent, and the ones only found after it which saved no descent
+	private AtomicLong nbRejectedDuplicates;
+	private AtomicLong nbLateDuplicates;
+	// Read by other threads while the algorithm runs
+	private volatile Individual bestSnapshot;
+	private volatile boolean isCancelled;
+	// Null unless enabled, the phases are then timed by each worker and added up after each of its generations
+	private RunMetrics metrics;
+	private ArrayList<MetricsListener> metricsListeners;
 	
-	public GeneticAlgorithm(ArrayList<Location> locations, int maxCapacity, long nbGenerations, int nbIndividuals, 
-			double pMutation, double diffRate, boolean isTournament, boolean isHGreX, boolean isHybrid) {
-    	this.maxCapacity = maxCapacity;
+	public GeneticAlgorithm(ProblemInstance instance, long nbGenerations, int nbIndividuals, 
+			double pMutation, double diffRate, boolean isTournament, boolean isHGreX, boolean isHybrid, boolean isOptimalSplit) {
+		this(instance, nbGenerations, nbIndividuals, pMutation, diffRate, isTournament, isHGreX, isHybrid, isOptimalSplit, new SplittableRandom());
+	}
+	
+	public GeneticAlgorithm(ProblemInstance instance, long nbGenerations, int nbIndividuals, 
+			double pMutation, double diffRate, boolean isTournament, boolean isHGreX, boolean isHybrid, boolean isOptimalSplit, SplittableRandom rand) {
+    	this.instance = instance;
     	this.nbGenerations = nbGenerations;
     	this.nbIndividuals = nbIndividuals;
     	this.pMutation = pMutation;
@@ -41,201 +74,462 @@ public class GeneticAlgorithm {
     	this.isTournament = isTournament;
     	this.isHGreX = isHGreX;
     	this.isHybrid = isHybrid;
+    	this.isOptimalSplit = isOptimalSplit;
     	population = new ArrayList<>(nbIndividuals);
-    	this.locations = locations;
-    	rand = new Random();
-    	selectionOperator = new SelectionOperator(this);
-    	mutationOperator = new MutationOperator(this);
-    	crossoverOperator = new CrossoverOperator(this);
-    	transformationOperator = new TransformationOperator(this);
+    	mainWorker = new Worker(rand);
+    	currentWorker = new ThreadLocal<>();
+    	nbWorkers = 1;
+    	populationLock = new ReentrantReadWriteLock();
+    	nbEvaluations = new AtomicLong();
+    	nbRejectedDuplicates = new AtomicLong();
+    	nbLateDuplicates = new AtomicLong();
     	bestCostsHistory = new TreeMap<>();
+    	metricsListeners = new ArrayList<>();
 	}
 	
     public void exec() {
-    	bestCostsHistory.clear();
-    	initPopulation();
+    	exec(new TerminationPolicy().setMaxGenerations(nbGenerations));
+    }
+    
+    public void exec(TerminationPolicy policy) {
+    	init();
+    	run(policy);
+    }
+    
+    // Continues after init or warmStart
+    public void run(TerminationPolicy policy) {
+    	long start = System.nanoTime();
 		displayDescription();
-		int percentage = -1, newPercentage;
-		ArrayList<Vehicle> p1, p2, c, randomInd, mutant;
-		ArrayList<ArrayList<Vehicle>> selectedParents, childsOX;
-		for (int i = 1; i <= nbGenerations; i++) {
-			selectedParents = isTournament ? selectionOperator.tournamentSelection(3) : selectionOperator.rouletteWheelSelection();
-			p1 = selectedParents.get(0);
-			p2 = selectedParents.get(1);
-			if (isHGreX) {
-				c = crossoverOperator.hGreXCrossover(p1, p2);
-			} else {
-				childsOX = crossoverOperator.oXCrossover(p1, p2);
-				c = childsOX.get(0);
-				addConsideringSimilarities(isHybrid ? descent(childsOX.get(1)) : childsOX.get(1), i);
+		if (nbWorkers > 1) {
+			runWorkers(policy, start);
+		} else {
+			int percentage = -1, newPercentage;
+			for (int i = 1; !isCancelled && !policy.isReached(i - 1, start, bestCost, getNbEvaluations(), lastImprovementGeneration); i++) {
+				execGeneration(i);
+				if ((newPercentage = policy.getPercentage(i, start, getNbEvaluations())) != percentage) {
+					System.out.println((percentage = newPercentage) + "%");
+				}
+			}
+		}
+	    displayIndividual(bestIndividual);
+	    if (metrics != null) {
+	    	System.out.println("Doublons rejets : " + nbRejectedDuplicates + " avant la descente, " + nbLateDuplicates + " aprs / "
+	    			+ nbEvaluations + " valuations");
+	    	System.out.println(metrics.getSummary());
+	    	for (MetricsListener listener : metricsListeners) {
+	    		listener.onRunEnd(bestCost, metrics);
+	    	}
+	    }
+    }
+    
+    // Steady state without rounds: each worker claims the next generation number from a shared counter, breeds its children
+    // against the shared population and inserts them, the policy is checked with the global counters
+    private void runWorkers(TerminationPolicy policy, long start) {
+    	AtomicLong generationsCounter = new AtomicLong();
+    	AtomicInteger percentage = new AtomicInteger(-1);
+    	AtomicBoolean isStopped = new AtomicBoolean();
+    	ArrayList<Future<?>> futures = new ArrayList<>(nbWorkers);
+    	ExecutorService pool = Executors.newFixedThreadPool(nbWorkers);
+    	try {
+    		for (int w = 0; w < nbWorkers; w++) {
+    			Worker worker = new Worker(mainWorker);
+    			futures.add(pool.submit(() -> {
+    				currentWorker.set(worker);
+    				long i;
+    				int current, newPercentage;
+    				try {
+    					while (!isCancelled && !isStopped.get() && !policy.isReached((i = generationsCounter.incrementAndGet()) - 1, start, bestCost, getNbEvaluations(), lastImprovementGeneration)) {
+    						execGeneration((int) i);
+    						newPercentage = policy.getPercentage(i, start, getNbEvaluations());
+    						while (newPercentage > (current = percentage.get())) {
+    							if (percentage.compareAndSet(current, newPercentage)) {
+    								System.out.println(newPercentage + "%");
+    							}
+    						}
+    					}
+    				} finally {
+    					currentWorker.remove();
+    				}
+    			}));
+    		}
+    		for (Future<?> future : futures) {
+    			future.get();
+    		}
+    	} catch (InterruptedException e) {
+    		Thread.currentThread().interrupt();
+    		throw new IllegalStateException(e);
+    	} catch (ExecutionException e) {
+    		throw new IllegalStateException(e.getCause());
+    	} finally {
+    		// After a failure the other workers would go on changing the population: they stop after their current generation
+    		// and are waited for before the exception leaves the run
+    		isStopped.set(true);
+    		pool.shutdown();
+    		awaitTermination(pool);
+    	}
+    }
+    
+    private static void awaitTermination(ExecutorService pool) {
+    	boolean isInterrupted = false;
+    	while (true) {
+    		try {
+    			if (pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS)) {
+    				break;
+    			}
+    		} catch (InterruptedException e) {
+    			isInterrupted = true;
+    		}
+    	}
+    	if (isInterrupted) {
+    		Thread.currentThread().interrupt();
+    	}
+    }
+    
+    // A new run is started: a previous cancellation no longer applies
+    public void init() {
+    	isCancelled = false;
+    	bestCostsHistory.clear();
+    	nbEvaluations.set(0);
+    	nbRejectedDuplicates.set(0);
+    	nbLateDuplicates.set(0);
+    	initPopulation(new ArrayList<>());
+    	resetMetrics();
+    }
+    
+    // Starts from individuals solving a previous version of the instance, repaired to fit the current one
+    // newIds comes from the InstanceDelta applied to the previous instance, the population is completed randomly
+    public void warmStart(List<Individual> previousIndividuals, int[] newIds) {
+    	RepairOperator repairOperator = new RepairOperator(instance);
+    	ArrayList<Individual> seeds = new ArrayList<>(nbIndividuals);
+    	Individual individual;
+    	isCancelled = false;
+    	bestCostsHistory.clear();
+    	nbEvaluations.set(0);
+    	nbRejectedDuplicates.set(0);
+    	nbLateDuplicates.set(0);
+    	for (Individual previous : previousIndividuals.subList(0, Math.min(nbIndividuals, previousIndividuals.size()))) {
+    		individual = repairOperator.repair(previous, newIds);
+    		seeds.add(isHybrid ? descent(individual) : individual);
+    		nbEvaluations.incrementAndGet();
+    	}
+    	initPopulation(seeds);
+    	resetMetrics();
+    }
+    
+    // Only the selection and the insertions lock the population, the crossover and the descent run unlocked
+    public void execGeneration(int i) {
+		Worker worker = getWorker();
+		Individual p1, p2, c, mutant, target;
+		Individual[] selectedParents;
+		ArrayList<Individual> childsOX;
+		int randomIdx;
+		boolean isReplaced = false;
+		long tick = tick(), decodeNanos;
+		populationLock.readLock().lock();
+		try {
+			selectedParents = isTournament ? worker.selectionOperator.tournamentSelection(3) : worker.selectionOperator.rouletteWheelSelection();
+			p1 = selectedParents[0];
+			p2 = selectedParents[1];
+		} finally {
+			populationLock.readLock().unlock();
+		}
+		tick = tock(worker, GenerationMetrics.SELECTION, tick);
+		// The crossover and the mutation reconstruct their individuals, timed apart as the decoding
+		decodeNanos = worker.generationMetrics.getPhaseNanos(GenerationMetrics.DECODE);
+		if (isHGreX) {
+			c = worker.crossoverOperator.hGreXCrossover(p1, p2);
+			tock(worker, GenerationMetrics.CROSSOVER, tick + worker.generationMetrics.getPhaseNanos(GenerationMetrics.DECODE) - decodeNanos);
+		} else {
+			childsOX = worker.crossoverOperator.oXCrossover(p1, p2);
+			tock(worker, GenerationMetrics.CROSSOVER, tick + worker.generationMetrics.getPhaseNanos(GenerationMetrics.DECODE) - decodeNanos);
+			c = childsOX.get(0);
+			addChild(childsOX.get(1), i);
+		}
+		addChild(c, i);
+		if (pMutation != 0 && worker.rand.nextDouble() < pMutation) {
+			tick = tick();
+			decodeNanos = worker.generationMetrics.getPhaseNanos(GenerationMetrics.DECODE);
+			populationLock.readLock().lock();
+			try {
+				target = population.get(randomIdx = getRandomIndividualButNotBest());
+			} finally {
+				populationLock.readLock().unlock();
 			}
-			addConsideringSimilarities(isHybrid ? descent(c) : c, i);
-			if (pMutation != 0 && rand.nextDouble() < pMutation) {
-				randomInd = getRandomIndividualButNotBest();
-				mutant = rand.nextDouble() < 0.5 ? mutationOperator.inversionMutation(randomInd) 
-						: mutationOperator.displacementMutation(randomInd);
-				if (isHybrid) {
-					mutant = descent(mutant);
+			mutant = worker.rand.nextDouble() < 0.5 ? worker.mutationOperator.inversionMutation(target) : worker.mutationOperator.displacementMutation(target);
+			tock(worker, GenerationMetrics.MUTATION, tick + worker.generationMetrics.getPhaseNanos(GenerationMetrics.DECODE) - decodeNanos);
+			if (!isDuplicateLocked(mutant, nbRejectedDuplicates) && !isDuplicateLocked(mutant = isHybrid ? descent(mutant) : mutant, nbLateDuplicates)) {
+				tick = tick();
+				populationLock.writeLock().lock();
+				try {
+					// Another worker may have replaced the target in the meantime
+					if (isReplaced = population.get(randomIdx) == target && !isDuplicate(mutant, nbLateDuplicates)) {
+						replaceIndividual(randomIdx, mutant, i);
+					}
+				} finally {
+					populationLock.writeLock().unlock();
 				}
-				population.remove(randomInd);
-				population.add(mutant);
-				updateBestIndividual(mutant, objectiveFunction(mutant), i);
+				tock(worker, GenerationMetrics.REPLACEMENT, tick);
 			}
-			if ((newPercentage = (int)(((double)(i + 1) / nbGenerations) * 100)) != percentage) {
-				System.out.println((percentage = newPercentage) + "%");
+			if (metrics != null) {
+				worker.generationMetrics.addChild(isReplaced);
 			}
 		}
-	    displayIndividual(bestIndividual);
+		if (metrics != null) {
+			endGenerationMetrics(worker, i);
+		}
+    }
+    
+    // The run stops after the current generation, the best individual found so far stays available
+    public void cancel() {
+    	isCancelled = true;
+    }
+    
+    public boolean isCancelled() {
+    	return isCancelled;
+    }
+    
+    // Best improvement by default
+    public void setFirstImprovement(boolean isFirstImprovement) {
+    	mainWorker.descentOperator.setFirstImprovement(isFirstImprovement);
+    }
+    
+    // Best improvement passes of large instances evaluated by all the cores, not worth it with islands
+    public void setParallelDescent(boolean isParallelDescent) {
+    	mainWorker.descentOperator.setParallel(isParallelDescent);
+    }
+    
+    // More than one worker breeds children concurrently on the same population, the generations limit counting
+    // the generations of all the workers; the results are then no longer reproducible from the seed
+    public void setNbWorkers(int nbWorkers) {
+    	this.nbWorkers = Math.max(1, nbWorkers);
+    }
+    
+    // Times the phases of the following runs, the listeners being called by the thread that ran each generation
+    public void addMetricsListener(MetricsListener listener) {
+    	metricsListeners.add(listener);
+    	enableMetrics();
+    }
+    
+    public void enableMetrics() {
+    	if (metrics == null) {
+    		metrics = new RunMetrics();
+    	}
+    }
+    
+    public void immigrate(Individual immigrant, int i) {
+    	addConsideringSimilarities(immigrant, i);
+    }
+    
+    public ArrayList<Individual> getBestIndividuals(int nb) {
+    	ArrayList<Individual> bestIndividuals = new ArrayList<>(nb);
+    	populationLock.readLock().lock();
+    	try {
+    		for (int rank = 0; rank < Math.min(nb, populationIndex.size()); rank++) {
+    			bestIndividuals.add(population.get(populationIndex.getSlot(rank)));
+    		}
+    	} finally {
+    		populationLock.readLock().unlock();
+    	}
+    	return bestIndividuals;
     }
     
-    private void initPopulation() {
+    private void initPopulation(ArrayList<Individual> seeds) {
     	population.clear();
 		double minCost = Double.POSITIVE_INFINITY, currCost;
-		ArrayList<Vehicle> minInd = null, individual;
-		ArrayList<Location> locationsCopy = Util.createDeepCopyLocations(locations);
-		locationsCopy.remove(Util.getLocationById(0, locationsCopy));
+		Individual minInd = null, individual;
+		int[] customers = new int[instance.getNbCustomers()];
+		int idx = 0;
+		for (Location l : instance.getLocations()) {
+			if (l.getId() != 0) {
+				customers[idx++] = l.getId();
+			}
+		}
 		for (int i = 0; i < nbIndividuals; i++) {
-	        Collections.shuffle(locationsCopy);
-	        individual = reconstruct(locationsCopy);
+			if (i < seeds.size()) {
+				individual = seeds.get(i);
+			} else {
+				shuffle(customers);
+				individual = reconstruct(customers.clone());
+			}
 	        population.add(individual);
-	        if ((currCost = objectiveFunction(individual)) < minCost) {
+	        if ((currCost = individual.getCost()) < minCost) {
 	        	minCost = currCost;
 	        	minInd = individual;
 	        }
 		}
 		bestCost = minCost;
-		bestIndividual = minInd;
+		bestSnapshot = bestIndividual = minInd;
 		bestCostsHistory.put(0, bestCost);
+		lastImprovementGeneration = 0;
+		populationIndex = new PopulationIndex(population);
+		mainWorker.selectionOperator.initWeights();
     }
 	
-	private void addConsideringSimilarities(ArrayList<Vehicle> individual, int i) {
-		double indCost = objectiveFunction(individual), currIndCost;
-		ArrayList<Vehicle> worse;
+	private void shuffle(int[] tour) {
+		int j, tmp;
+		for (int i = tour.length - 1; i > 0; i--) {
+			j = getRand().nextInt(i + 1);
+			tmp = tour[i];
+			tour[i] = tour[j];
+			tour[j] = tmp;
+		}
+	}
+	
+	// A child already in the population is dropped before the descent
+	private void addChild(Individual child, int i) {
+		boolean isAccepted = false;
+		long tick;
+		if (!isDuplicateLocked(child, nbRejectedDuplicates)) {
+			child = isHybrid ? descent(child) : child;
+			tick = tick();
+			isAccepted = addConsideringSimilarities(child, i);
+			tock(getWorker(), GenerationMetrics.REPLACEMENT, tick);
+		}
+		if (metrics != null) {
+			getWorker().generationMetrics.addChild(isAccepted);
+		}
+	}
+	
+	private boolean isDuplicateLocked(Individual individual, AtomicLong nbDuplicates) {
+		populationLock.readLock().lock();
+		try {
+			return isDuplicate(individual, nbDuplicates);
+		} finally {
+			populationLock.readLock().unlock();
+		}
+	}
+	
+	// The caller holds the population lock, the duplicate is counted in the given counter
+	private boolean isDuplicate(Individual individual, AtomicLong nbDuplicates) {
+		if (populationIndex.contains(individual.getHash())) {
+			nbDuplicates.incrementAndGet();
+			return true;
+		}
+		return false;
+	}
+	
+	private boolean addConsideringSimilarities(Individual individual, int i) {
+		populationLock.writeLock().lock();
+		try {
+			return insertConsideringSimilarities(individual, i);
+		} finally {
+			populationLock.writeLock().unlock();
+		}
+	}
+	
+	// Returns whether the individual replaced another one
+	private boolean insertConsideringSimilarities(Individual individual, int i) {
+		double indCost = individual.getCost();
+		int worseIdx, worstSimilarIdx, similarsEnd;
 		boolean hasSimilar = false;
+		if (isDuplicate(individual, nbLateDuplicates)) {
+			return false;
+		}
 		if (areSimilar(bestCost, indCost, diffRate)) {
-			for (ArrayList<Vehicle> currInd : population) {
-				if (areSimilar(bestCost, (currIndCost = objectiveFunction(currInd)), diffRate)) {
-					hasSimilar = true;
-					if (indCost < currIndCost) {
-						population.remove(currInd);
-						population.add(individual);
-						updateBestIndividual(individual, indCost, i);
-						break;
-					}
+			// The individuals similar to the best one are a range of ranks, the worst of them is replaced
+			similarsEnd = populationIndex.countAtMost(bestCost * (1 + diffRate));
+			if (hasSimilar = similarsEnd > populationIndex.countLessThan(bestCost / (1 + diffRate))) {
+				worstSimilarIdx = populationIndex.getSlot(similarsEnd - 1);
+				if (indCost < population.get(worstSimilarIdx).getCost()) {
+					replaceIndividual(worstSimilarIdx, individual, i);
+					return true;
 				}
 			}
 		}
-		if (!hasSimilar && (worse = getRandomWorseIndividual(indCost)) != null) {
-			population.remove(worse);
-			population.add(individual);
-			updateBestIndividual(individual, indCost, i);
+		if (!hasSimilar && (worseIdx = getRandomWorseIndividual(indCost)) != -1) {
+			replaceIndividual(worseIdx, individual, i);
+			return true;
 		}
+		return false;
+	}
+	
+	private void replaceIndividual(int idx, Individual individual, int i) {
+		population.set(idx, individual);
+		populationIndex.update(idx, individual);
+		mainWorker.selectionOperator.updateWeight(idx);
+		updateBestIndividual(individual, individual.getCost(), i);
 	}
 	
 	private boolean areSimilar(double a, double b, double perc) {
 		return Math.abs(a - b) / Math.min(a, b) <= perc;
 	}
 	
-	private ArrayList<Vehicle> getRandomIndividualButNotBest() {
-		ArrayList<ArrayList<Vehicle>> notBest = new ArrayList<>();
-		for (ArrayList<Vehicle> individual : population) {
-			if (objectiveFunction(individual) != bestCost) {
-				notBest.add(individual);
-			}
+	private int getRandomIndividualButNotBest() {
+		int nbBest = populationIndex.countAtMost(bestCost);
+		return nbBest < population.size() ? populationIndex.getSlot(nbBest + getRand().nextInt(population.size() - nbBest)) : 0;
+	}
+	
+	private int getRandomWorseIndividual(double cost) {
+		int nbNotWorse = populationIndex.countAtMost(cost);
+		return nbNotWorse < population.size() ? populationIndex.getSlot(nbNotWorse + getRand().nextInt(population.size() - nbNotWorse)) : -1;
+	}
+	
+	public Individual descent(Individual individual) {
+		Worker worker = getWorker();
+		if (metrics == null) {
+			return worker.descentOperator.descent(individual);
 		}
-		return !notBest.isEmpty() ? notBest.get(rand.nextInt(notBest.size())) : population.get(0);
+		DescentOperator descentOperator = worker.descentOperator;
+		long tick = System.nanoTime(), nbPasses = descentOperator.getNbPasses(), nbMoves = descentOperator.getNbMoves();
+		long nbEvaluatedMoves = descentOperator.getNbEvaluatedMoves();
+		individual = descentOperator.descent(individual);
+		tock(worker, GenerationMetrics.DESCENT, tick);
+		worker.generationMetrics.addDescent(descentOperator.getNbPasses() - nbPasses, descentOperator.getNbMoves() - nbMoves,
+				descentOperator.getNbEvaluatedMoves() - nbEvaluatedMoves);
+		return individual;
 	}
 	
-	private ArrayList<Vehicle> getRandomWorseIndividual(double cost) {
-		ArrayList<ArrayList<Vehicle>> worst = new ArrayList<>();
-		for (ArrayList<Vehicle> individual : population) {
-			if (cost < objectiveFunction(individual)) {
-				worst.add(individual);
-			}
+	public Individual reconstruct(int[] tour) {
+		Worker worker = getWorker();
+		long tick = tick();
+		Individual individual = isOptimalSplit ? new Individual(instance, tour, worker.splitOperator.split(tour)) : new Individual(instance, tour, greedySplit(tour));
+		nbEvaluations.incrementAndGet();
+		if (metrics != null) {
+			worker.generationMetrics.addEvaluation();
+			tock(worker, GenerationMetrics.DECODE, tick);
 		}
-		return !worst.isEmpty() ? worst.get(rand.nextInt(worst.size())) : null;
+		return individual;
 	}
 	
-	private ArrayList<Vehicle> descent(ArrayList<Vehicle> individual) {
-    	ArrayList<Vehicle> neighbor;
-    	while ((neighbor = getBestNeighborAndBetter(individual)) != null) {
-    		individual = neighbor;
-    	}
-    	return individual;
-    }
-    
-    private ArrayList<Vehicle> getBestNeighborAndBetter(ArrayList<Vehicle> individual) {
-    	double minCost = objectiveFunction(individual), currCost;
-    	ArrayList<Vehicle> bestInd = null, newInd;
-		ArrayList<Location> routeFrom, routeTo;
-		int routeFromSize, routeToSize;
-		boolean isSameRoute;
-		for (int vFromIdx = 0; vFromIdx < individual.size(); vFromIdx++) {
-			routeFrom = individual.get(vFromIdx).getRoute();
-			routeFromSize = routeFrom.size();
-			for (int vToIdx = vFromIdx; vToIdx < individual.size(); vToIdx++) {
-				routeTo = individual.get(vToIdx).getRoute();
-				routeToSize = routeTo.size();
-				if (!(isSameRoute = (vFromIdx == vToIdx)) 
-						&& individual.get(vFromIdx).getCurrentLoading() + individual.get(vToIdx).getCurrentLoading() > (maxCapacity * 2)) {
-					continue;
-				}
-				for (int locFromIdx = 1; locFromIdx < routeFromSize - (isSameRoute ? 2 : 1); locFromIdx++) {
-					for (int locToIdx = (isSameRoute ? (locFromIdx + 1) : (locFromIdx == routeFromSize - 2 ? 1 : 0)); locToIdx < routeToSize - ((isSameRoute && locFromIdx == 1 || !isSameRoute && locFromIdx == routeFromSize - 2) ? 2 : 1); locToIdx++) {
-						if ((newInd = isSameRoute ? transformationOperator.twoOptTransformation(individual, vFromIdx, locFromIdx, locToIdx) 
-								: transformationOperator.swapTransformation(individual, routeFrom, routeTo, vFromIdx, vToIdx, locFromIdx, locToIdx)) != null 
-								&& (currCost = objectiveFunction(newInd)) < minCost) {
-							minCost = currCost;
-							bestInd = newInd;
-						}
-					}
-				}
+	// New route as soon as the next customer exceeds the capacity
+	private int[] greedySplit(int[] tour) {
+		int[] routesStarts = new int[tour.length + 1];
+		int nbRoutes = 0, load = 0, demand;
+		for (int i = 0; i < tour.length; i++) {
+			demand = instance.getDemand(tour[i]);
+			if (i > 0 && load + demand > instance.getMaxCapacity()) {
+				routesStarts[++nbRoutes] = i;
+				load = 0;
 			}
+			load += demand;
 		}
-		return bestInd;
+		routesStarts[++nbRoutes] = tour.length;
+		return Arrays.copyOf(routesStarts, nbRoutes + 1);
 	}
 	
-	public <T> ArrayList<Vehicle> reconstruct(ArrayList<T> reconstructibleLocations) {
-		ArrayList<Vehicle> reconstructedLocations = new ArrayList<>();
-		Location depot = Util.getLocationById(0, locations), l;
-		Vehicle v = new Vehicle(maxCapacity);
-		v.routeLocation(depot);
-		for (int i = 0; i < reconstructibleLocations.size(); i++) {
-			l = (reconstructibleLocations.get(i) instanceof Integer) ? Util.getLocationById((Integer)reconstructibleLocations.get(i), locations) : (Location)reconstructibleLocations.get(i);
-			if (!v.routeLocation(l)) {
-				v.routeLocation(depot);
-				reconstructedLocations.add(v);
-				v = new Vehicle(maxCapacity);
-				v.routeLocation(depot);
-				v.routeLocation(l);
+	public ArrayList<Vehicle> toVehicles(Individual individual) {
+		ArrayList<Vehicle> vehicles = new ArrayList<>();
+		Vehicle v;
+		for (int vIdx = 0; vIdx < individual.getNbVehicles(); vIdx++) {
+			v = new Vehicle(instance.getMaxCapacity());
+			for (int locIdx = 0; locIdx < individual.getRouteSize(vIdx); locIdx++) {
+				v.routeLocation(instance.getLocation(individual.getLocationId(vIdx, locIdx)));
 			}
+			vehicles.add(v);
 		}
-		v.routeLocation(depot);
-		reconstructedLocations.add(v);
-		return reconstructedLocations;
+		return vehicles;
 	}
 	
-	private void updateBestIndividual(ArrayList<Vehicle> individual, double cost, int i) {
+	private void updateBestIndividual(Individual individual, double cost, int i) {
 		if (cost < bestCost) {
 			bestCost = cost;
-			bestIndividual = individual;
-			bestCostsHistory.put(i, bestCost);
+			bestSnapshot = bestIndividual = individual;
+			// Workers may finish their generations out of order
+			lastImprovementGeneration = Math.max(i, lastImprovementGeneration);
+			bestCostsHistory.put(lastImprovementGeneration, bestCost);
 		}
 	}
 	
-	public double objectiveFunction(ArrayList<Vehicle> vehicles) {
-		double sumDist = 0, sumVehicles = 0;
-    	ArrayList<Location> route;
-    	for(Vehicle v : vehicles) {
-    		route = v.getRoute();
-			sumVehicles++;
-			for (int i = 0; i < route.size() - 1; i++) {
-    			sumDist += Util.getDistances().get(route.get(i).getId()).get(route.get(i + 1).getId());
-    		}
-    	}
-    	return sumDist + sumVehicles;
-    }
-	
 	public void displayDescription() {
 		System.out.println("----------------------------------------------------------------------------------------------------");
 		String description = "Cot initial = " + (double) Math.round(bestCost * 1000) / 1000;
@@ -246,29 +540,44 @@ public class GeneticAlgorithm {
 		description += "\nOprateur de slection = " + (isTournament ? "Tournoi" : "Roulette");
 		description += "\nOprateur de croisement = " + (isHGreX ? "HGreX" : "OX");
 		description += "\n" + (isHybrid ? "Hybride" : "Non-Hybride");
+		description += "\nDcoupage des tournes = " + (isOptimalSplit ? "Optimal (Split)" : "Glouton");
+		if (isHybrid) {
+			description += "\nRecherche locale = " + (mainWorker.descentOperator.isFirstImprovement() ? "Premire amlioration" : "Meilleure amlioration")
+					+ (mainWorker.descentOperator.isParallel() ? " (parallle)" : "");
+		}
+		if (nbWorkers > 1) {
+			description += "\nGnrations asynchrones = " + nbWorkers + " workers";
+		}
 		System.out.println(description);
 		System.out.println("----------------------------------------------------------------------------------------------------");
 	}
 	
 	public String getInlineDescription() {
 		String description = "Cot final = " + (double) Math.round(bestCost * 1000) / 1000;
-		description += " | Nb vhicules = " + bestIndividual.size() + " | ";
-		description += " | Nb indvs = " +  nbIndividuals;
+		description += " | Nb vhicules = " + bestIndividual.getNbVehicles() + " | ";
+		description += getInlineParameters();
+		return description;
+	}
+	
+	public String getInlineParameters() {
+		String description = " | Nb indvs = " +  nbIndividuals;
 		description += " | Nb gens = " + nbGenerations;
 		description += " | P(mutation) = " + pMutation;
 		description += " | Taux diff = " + diffRate;
 		description += " | S = " + (isTournament ? "Tournoi" : "Roulette");
 		description += " | C = " + (isHGreX ? "HGreX" : "OX");
 		description += " | " + (isHybrid ? "Hybride" : "Non-Hybride");
+		description += " | D = " + (isOptimalSplit ? "Split" : "Glouton");
 		return description;
 	}
 	
-    public void displayIndividual(ArrayList<Vehicle> vehicles) {
+    public void displayIndividual(Individual individual) {
+    	ArrayList<Vehicle> vehicles = toVehicles(individual);
     	System.out.println("----------------------------------------------------------------------------------------------------");
         for (int i = 0 ; i < vehicles.size() ; i++) {
             System.out.println("Vhicule n" + (i + 1) + " : " + getRouteString(vehicles.get(i).getRoute()));
         }
-        System.out.println("\nCot de la solution : " + objectiveFunction(vehicles));
+        System.out.println("\nCot de la solution : " + individual.getCost());
     	System.out.println("----------------------------------------------------------------------------------------------------");
     }
     
@@ -281,11 +590,11 @@ public class GeneticAlgorithm {
     	return routeString;
     }
     
-    public ArrayList<ArrayList<Vehicle>> getPopulation() {
+    public ArrayList<Individual> getPopulation() {
     	return population;
     }
     
-    public ArrayList<Vehicle> getBestIndividual() {
+    public Individual getBestIndividual() {
     	return bestIndividual;
     }
     
@@ -293,19 +602,113 @@ public class GeneticAlgorithm {
     	return bestCost;
     }
     
-    public int getMaxCapacity() {
-    	return maxCapacity;
+    // Safe to call from any thread during the run, null before the population is initialized
+    public Individual getBestSnapshot() {
+    	return bestSnapshot;
+    }
+    
+    public int getLastImprovementGeneration() {
+    	return lastImprovementGeneration;
+    }
+    
+    public ProblemInstance getInstance() {
+    	return instance;
+    }
+    
+    public long getNbEvaluations() {
+    	return nbEvaluations.get();
+    }
+    
+    // Each rejected duplicate saves its descent and its insertion in the population
+    public long getNbRejectedDuplicates() {
+    	return nbRejectedDuplicates.get();
+    }
+    
+    // Children and immigrants found in the population only when inserted
+    public long getNbLateDuplicates() {
+    	return nbLateDuplicates.get();
     }
     
     public TreeMap<Integer, Double> getBestCostsHistory() {
     	return bestCostsHistory;
     }
     
-    public Random getRand() {
-    	return rand;
+    // The generator of the calling worker
+    public SplittableRandom getRand() {
+    	return getWorker().rand;
+    }
+    
+    private Worker getWorker() {
+    	Worker worker;
+    	return nbWorkers > 1 && (worker = currentWorker.get()) != null ? worker : mainWorker;
+    }
+    
+    // Start of a timed phase, free when the metrics are disabled
+    private long tick() {
+    	return metrics != null ? System.nanoTime() : 0;
+    }
+    
+    // Adds the time since the tick to the phase and returns the start of the next one
+    private long tock(Worker worker, int phase, long tick) {
+    	if (metrics == null) {
+    		return 0;
+    	}
+    	long now = System.nanoTime();
+    	worker.generationMetrics.addPhaseNanos(phase, now - tick);
+    	return now;
+    }
+    
+    private void endGenerationMetrics(Worker worker, int i) {
+    	metrics.add(worker.generationMetrics);
+    	for (MetricsListener listener : metricsListeners) {
+    		listener.onGeneration(i, bestCost, worker.generationMetrics, metrics);
+    	}
+    	worker.generationMetrics.reset();
+    }
+    
+    // The generations only, the initial population is not measured
+    private void resetMetrics() {
+    	if (metrics != null) {
+    		metrics = new RunMetrics();
+    		mainWorker.generationMetrics.reset();
+    	}
+    }
+    
+    public RunMetrics getMetrics() {
+    	return metrics;
     }
     
     public int getNbIndividuals() {
     	return nbIndividuals;
     }
+    
+    // Random generator and operators with their buffers, used by a single thread
+    private class Worker {
+    	
+    	private SplittableRandom rand;
+    	private SelectionOperator selectionOperator;
+    	private CrossoverOperator crossoverOperator;
+    	private MutationOperator mutationOperator;
+    	private DescentOperator descentOperator;
+    	private SplitOperator splitOperator;
+    	private GenerationMetrics generationMetrics;
+    	
+    	private Worker(SplittableRandom rand) {
+    		this.rand = rand;
+    		selectionOperator = new SelectionOperator(GeneticAlgorithm.this);
+    		crossoverOperator = new CrossoverOperator(GeneticAlgorithm.this, instance);
+    		mutationOperator = new MutationOperator(GeneticAlgorithm.this);
+    		descentOperator = new DescentOperator(instance, new TransformationOperator(instance));
+    		splitOperator = new SplitOperator(instance);
+    		generationMetrics = new GenerationMetrics();
+    	}
+    	
+    	// Same settings and roulette wheel as the main worker, with an independent generator
+    	private Worker(Worker main) {
+    		this(main.rand.split());
+    		selectionOperator.shareWeights(main.selectionOperator);
+    		descentOperator.setFirstImprovement(main.descentOperator.isFirstImprovement());
+    		descentOperator.setParallel(main.descentOperator.isParallel());
+    	}
+    }
 }
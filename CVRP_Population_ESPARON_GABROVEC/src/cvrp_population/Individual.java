@@ -0,0 +1,136 @@
+package cvrp_population;
+
+public class Individual {
+
+	// Giant tour of the customers ids (depot excluded), cut into routes by routesStarts
+	private int[] tour;
+	private int[] routesStarts;
+	private double[] routesLengths;
+	private int[] routesLoads;
+	// For each position of the tour, load of its route from the depot up to this customer included
+	private int[] prefixLoads;
+	private double cost;
+	// Sum of the keys of the edges of the routes: the same for any routes order or direction
+	private long hash;
+
+	public Individual(ProblemInstance instance, int[] tour, int[] routesStarts) {
+		this.tour = tour;
+		this.routesStarts = routesStarts;
+		int nbRoutes = routesStarts.length - 1;
+		routesLengths = new double[nbRoutes];
+		routesLoads = new int[nbRoutes];
+		prefixLoads = new int[tour.length];
+		for (int v = 0; v < nbRoutes; v++) {
+			computePrefixLoads(instance, tour, routesStarts[v], routesStarts[v], routesStarts[v + 1], prefixLoads);
+			routesLengths[v] = computeRouteLength(instance, tour, routesStarts[v], routesStarts[v + 1]);
+			routesLoads[v] = prefixLoads[routesStarts[v + 1] - 1];
+			hash += computeRouteHash(instance, tour, routesStarts[v], routesStarts[v + 1]);
+		}
+		cost = computeCost();
+	}
+
+	// For neighbors sharing the unchanged routes metadata, the hash being updated from the changed edges
+	public Individual(int[] tour, int[] routesStarts, double[] routesLengths, int[] routesLoads, int[] prefixLoads, long hash) {
+		this.tour = tour;
+		this.routesStarts = routesStarts;
+		this.routesLengths = routesLengths;
+		this.routesLoads = routesLoads;
+		this.prefixLoads = prefixLoads;
+		this.hash = hash;
+		cost = computeCost();
+	}
+
+	private double computeCost() {
+		double sumDist = 0;
+		for (double routeLength : routesLengths) {
+			sumDist += routeLength;
+		}
+		return sumDist + routesLengths.length;
+	}
+
+	// Prefix loads of the positions from "from" to "to" (excluded) of the route starting at routeStart, the ones before "from" being up to date
+	public static void computePrefixLoads(ProblemInstance instance, int[] tour, int routeStart, int from, int to, int[] prefixLoads) {
+		for (int i = from; i < to; i++) {
+			prefixLoads[i] = (i == routeStart ? 0 : prefixLoads[i - 1]) + instance.getDemand(tour[i]);
+		}
+	}
+
+	// Length of the route made of the positions from "from" to "to" (excluded), depot included at both ends
+	public static double computeRouteLength(ProblemInstance instance, int[] tour, int from, int to) {
+		double length = instance.getDistance(0, tour[from]);
+		for (int i = from + 1; i < to; i++) {
+			length += instance.getDistance(tour[i - 1], tour[i]);
+		}
+		return length + instance.getDistance(tour[to - 1], 0);
+	}
+
+	public static long computeRouteHash(ProblemInstance instance, int[] tour, int from, int to) {
+		long routeHash = instance.getEdgeKey(0, tour[from]) + instance.getEdgeKey(tour[to - 1], 0);
+		for (int i = from; i < to - 1; i++) {
+			routeHash += instance.getEdgeKey(tour[i], tour[i + 1]);
+		}
+		return routeHash;
+	}
+
+	public int[] getTour() {
+		return tour;
+	}
+
+	public int[] getRoutesStarts() {
+		return routesStarts;
+	}
+
+	public int getNbVehicles() {
+		return routesLengths.length;
+	}
+
+	// Number of locations visited by the route, depot included at both ends
+	public int getRouteSize(int vIdx) {
+		return routesStarts[vIdx + 1] - routesStarts[vIdx] + 2;
+	}
+
+	public int getLocationId(int vIdx, int locIdx) {
+		return (locIdx == 0 || locIdx == getRouteSize(vIdx) - 1) ? 0 : tour[routesStarts[vIdx] + locIdx - 1];
+	}
+
+	public double getRouteLength(int vIdx) {
+		return routesLengths[vIdx];
+	}
+
+	public double[] getRoutesLengths() {
+		return routesLengths;
+	}
+
+	public int getRouteLoad(int vIdx) {
+		return routesLoads[vIdx];
+	}
+
+	public int[] getRoutesLoads() {
+		return routesLoads;
+	}
+
+	public int[] getPrefixLoads() {
+		return prefixLoads;
+	}
+
+	// Load of the customers of the route between the locations locFromIdx and locToIdx included (depot at 0)
+	public int getSegmentLoad(int vIdx, int locFromIdx, int locToIdx) {
+		return getPrefixLoad(vIdx, locToIdx) - getPrefixLoad(vIdx, locFromIdx - 1);
+	}
+
+	// Load from the depot up to the location locIdx included
+	public int getPrefixLoad(int vIdx, int locIdx) {
+		if (locIdx <= 0) {
+			return 0;
+		}
+		return locIdx >= getRouteSize(vIdx) - 1 ? routesLoads[vIdx] : prefixLoads[routesStarts[vIdx] + locIdx - 1];
+	}
+
+	public double getCost() {
+		return cost;
+	}
+
+	public long getHash() {
+		return hash;
+	}
+}
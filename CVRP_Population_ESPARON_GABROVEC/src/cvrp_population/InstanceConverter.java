@@ -0,0 +1,42 @@
+package cvrp_population;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// Usage : InstanceConverter <directory | file> [--sans-distances]
+// Writes a ".cvrpb" file next to each ".txt" or ".vrp" instance
+public class InstanceConverter {
+
+	private static final String GLOB = "*.{txt,vrp}";
+	private static final String NO_DISTANCES_OPTION = "--sans-distances";
+
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.err.println("Usage : InstanceConverter <rpertoire | fichier> [" + NO_DISTANCES_OPTION + "]");
+			System.exit(1);
+		}
+		Path path = Paths.get(args[0]);
+		boolean withDistances = !(args.length > 1 && args[1].equals(NO_DISTANCES_OPTION));
+		if (!Files.isDirectory(path)) {
+			convert(path, withDistances);
+			return;
+		}
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(path, GLOB)) {
+			for (Path instancePath : stream) {
+				if (Files.isRegularFile(instancePath)) {
+					convert(instancePath, withDistances);
+				}
+			}
+		}
+	}
+
+	private static void convert(Path instancePath, boolean withDistances) {
+		String fileName = instancePath.getFileName().toString();
+		Path binaryPath = instancePath.resolveSibling(fileName.substring(0, fileName.lastIndexOf('.')) + BinaryInstanceFormat.EXTENSION);
+		BinaryInstanceFormat.write(InstanceReader.read(instancePath.toString(), Program.MAX_VEHICLES_CAPACITY), binaryPath, withDistances);
+		System.out.println(instancePath + " -> " + binaryPath);
+	}
+}
@@ -0,0 +1,71 @@
+package cvrp_population;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+// Orders changes between two plannings, the remaining locations are renumbered so that the ids stay dense
+public class InstanceDelta {
+
+	private HashSet<Integer> removedIds;
+	private HashMap<Integer, Integer> changedDemands;
+	private ArrayList<Location> addedLocations;
+
+	public InstanceDelta() {
+		removedIds = new HashSet<>();
+		changedDemands = new HashMap<>();
+		addedLocations = new ArrayList<>();
+	}
+
+	public InstanceDelta removeCustomer(int id) {
+		removedIds.add(id);
+		return this;
+	}
+
+	public InstanceDelta changeDemand(int id, int nbOrders) {
+		changedDemands.put(id, nbOrders);
+		return this;
+	}
+
+	public InstanceDelta addCustomer(int x, int y, int nbOrders) {
+		addedLocations.add(new Location(-1, x, y, nbOrders));
+		return this;
+	}
+
+	// Ids in the new instance indexed by the ids in the previous one, -1 for the removed customers
+	// The added customers take the last ids
+	public int[] getNewIds(ProblemInstance instance) {
+		int[] newIds = new int[instance.getNbLocations()];
+		int nextId = 0;
+		for (int id : removedIds) {
+			if (id <= 0 || id >= newIds.length) {
+				throw new IllegalArgumentException("Client  supprimer inconnu : " + id);
+			}
+		}
+		for (int id = 0; id < newIds.length; id++) {
+			newIds[id] = removedIds.contains(id) ? -1 : nextId++;
+		}
+		return newIds;
+	}
+
+	public ProblemInstance apply(ProblemInstance instance) {
+		int[] newIds = getNewIds(instance);
+		ArrayList<Location> locations = new ArrayList<>(newIds.length - removedIds.size() + addedLocations.size());
+		Location l;
+		for (int id : changedDemands.keySet()) {
+			if (id <= 0 || id >= newIds.length || newIds[id] == -1) {
+				throw new IllegalArgumentException("Client  modifier inconnu : " + id);
+			}
+		}
+		for (int id = 0; id < newIds.length; id++) {
+			if (newIds[id] != -1) {
+				l = instance.getLocation(id);
+				locations.add(new Location(newIds[id], l.getX(), l.getY(), changedDemands.getOrDefault(id, l.getNbOrders())));
+			}
+		}
+		for (Location added : addedLocations) {
+			locations.add(new Location(locations.size(), added.getX(), added.getY(), added.getNbOrders()));
+		}
+		return new ProblemInstance(locations, instance.getMaxCapacity(), instance.isRoundedDistances(), null);
+	}
+}
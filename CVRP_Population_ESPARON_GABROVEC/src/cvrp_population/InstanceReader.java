@@ -0,0 +1,281 @@
+package cvrp_population;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+// Streaming reader of the "i;x;y;q" files and of the CVRPLIB ".vrp" files (EUC_2D, integer coordinates, rounded distances)
+// The bytes are parsed as they are read, any malformed value stops the reading with its line number
+public class InstanceReader implements AutoCloseable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private FileChannel channel;
+	private ByteBuffer buffer;
+	private byte[] bytes;
+	private int position;
+	private int limit;
+	private String pathFile;
+	private int lineNumber;
+	private int capacity;
+
+	private InstanceReader(String pathFile) throws IOException {
+		this.pathFile = pathFile;
+		channel = FileChannel.open(Paths.get(pathFile), StandardOpenOption.READ);
+		bytes = new byte[BUFFER_SIZE];
+		buffer = ByteBuffer.wrap(bytes);
+		lineNumber = 1;
+		capacity = -1;
+	}
+
+	// The capacity of a ".vrp" or ".cvrpb" file takes precedence over the default one
+	public static ProblemInstance read(String pathFile, int defaultCapacity) {
+		if (pathFile.toLowerCase().endsWith(BinaryInstanceFormat.EXTENSION)) {
+			return BinaryInstanceFormat.read(Paths.get(pathFile));
+		}
+		try (InstanceReader reader = new InstanceReader(pathFile)) {
+			ArrayList<Location> locations = reader.readLocations();
+			return new ProblemInstance(locations, reader.capacity != -1 ? reader.capacity : defaultCapacity, reader.isVrp(), null);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Lecture impossible de " + pathFile, e);
+		}
+	}
+
+	public static ArrayList<Location> readLocations(String pathFile) {
+		try (InstanceReader reader = new InstanceReader(pathFile)) {
+			return reader.readLocations();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Lecture impossible de " + pathFile, e);
+		}
+	}
+
+	private ArrayList<Location> readLocations() throws IOException {
+		return isVrp() ? readVrp() : readCsv();
+	}
+
+	private boolean isVrp() {
+		return pathFile.toLowerCase().endsWith(".vrp");
+	}
+
+	private ArrayList<Location> readCsv() throws IOException {
+		ArrayList<Location> locations = new ArrayList<>();
+		int id, x, y;
+		nextLine();
+		while (skipBlankLines()) {
+			id = readInt();
+			expect(';');
+			x = readInt();
+			expect(';');
+			y = readInt();
+			expect(';');
+			locations.add(new Location(id, x, y, readInt()));
+			endLine();
+		}
+		if (locations.size() < 2) {
+			throw error("au moins un dpt et un client sont attendus");
+		}
+		return locations;
+	}
+
+	// Nodes are numbered from 1 in the file, the depot takes the id 0 and the customers keep their order
+	private ArrayList<Location> readVrp() throws IOException {
+		int dimension = -1, depotNode = 1, node;
+		int[] xs = null, ys = null, demands = null;
+		boolean hasCoordinates = false, hasDemands = false;
+		String keyword;
+		while (skipBlankLines()) {
+			keyword = readWord();
+			if (keyword.equals("EOF")) {
+				break;
+			}
+			skipSpaces();
+			if (peek() == ':') {
+				position++;
+				skipSpaces();
+			}
+			switch (keyword) {
+			case "DIMENSION":
+				if ((dimension = readInt()) < 2 || dimension > ProblemInstance.MAX_NB_LOCATIONS) {
+					throw error("DIMENSION " + dimension + " hors de l'intervalle [2, " + ProblemInstance.MAX_NB_LOCATIONS + "]");
+				}
+				xs = new int[dimension];
+				ys = new int[dimension];
+				demands = new int[dimension];
+				endLine();
+				break;
+			case "CAPACITY":
+				capacity = readInt();
+				endLine();
+				break;
+			case "EDGE_WEIGHT_TYPE":
+				if (!(keyword = readWord()).equals("EUC_2D")) {
+					throw error("type de distance non support " + keyword);
+				}
+				endLine();
+				break;
+			case "NODE_COORD_SECTION":
+			case "DEMAND_SECTION":
+				if (dimension == -1) {
+					throw error("DIMENSION attendu avant " + keyword);
+				}
+				endLine();
+				// Each node exactly once: no duplicate among the dimension lines means no missing node
+				boolean[] isRead = new boolean[dimension];
+				for (int i = 0; i < dimension; i++) {
+					if (!skipBlankLines()) {
+						throw error(keyword + " incomplte : " + (dimension - i) + " noeuds manquants");
+					}
+					if ((node = readInt()) < 1 || node > dimension) {
+						throw error("noeud invalide " + node);
+					}
+					if (isRead[node - 1]) {
+						throw error("noeud en double " + node + " dans " + keyword);
+					}
+					isRead[node - 1] = true;
+					if (keyword.equals("DEMAND_SECTION")) {
+						demands[node - 1] = readInt();
+					} else {
+						xs[node - 1] = readInt();
+						ys[node - 1] = readInt();
+					}
+					endLine();
+				}
+				hasCoordinates |= keyword.equals("NODE_COORD_SECTION");
+				hasDemands |= keyword.equals("DEMAND_SECTION");
+				break;
+			case "DEPOT_SECTION":
+				endLine();
+				skipBlankLines();
+				if ((depotNode = readInt()) < 1 || depotNode > dimension) {
+					throw error("dpt invalide " + depotNode);
+				}
+				endLine();
+				skipBlankLines();
+				if (readInt() != -1) {
+					throw error("un seul dpt est support");
+				}
+				endLine();
+				break;
+			default:
+				nextLine();
+			}
+		}
+		if (capacity == -1 || !hasCoordinates || !hasDemands) {
+			throw error("CAPACITY, NODE_COORD_SECTION et DEMAND_SECTION sont obligatoires");
+		}
+		ArrayList<Location> locations = new ArrayList<>(dimension);
+		locations.add(new Location(0, xs[depotNode - 1], ys[depotNode - 1], demands[depotNode - 1]));
+		for (int i = 0; i < dimension; i++) {
+			if (i != depotNode - 1) {
+				locations.add(new Location(locations.size(), xs[i], ys[i], demands[i]));
+			}
+		}
+		return locations;
+	}
+
+	// -1 at the end of the file
+	private int peek() throws IOException {
+		if (position == limit) {
+			buffer.clear();
+			position = 0;
+			if ((limit = Math.max(channel.read(buffer), 0)) == 0) {
+				return -1;
+			}
+		}
+		return bytes[position] & 0xFF;
+	}
+
+	private void skipSpaces() throws IOException {
+		int c;
+		while ((c = peek()) == ' ' || c == '\t' || c == '\r') {
+			position++;
+		}
+	}
+
+	// False at the end of the file
+	private boolean skipBlankLines() throws IOException {
+		int c;
+		while (true) {
+			skipSpaces();
+			if ((c = peek()) == '\n') {
+				position++;
+				lineNumber++;
+			} else {
+				return c != -1;
+			}
+		}
+	}
+
+	private void nextLine() throws IOException {
+		int c;
+		while ((c = peek()) != -1) {
+			position++;
+			if (c == '\n') {
+				lineNumber++;
+				return;
+			}
+		}
+	}
+
+	// Nothing else than spaces may follow the values of a line
+	private void endLine() throws IOException {
+		skipSpaces();
+		int c = peek();
+		if (c != '\n' && c != -1) {
+			throw error("caractre inattendu '" + (char) c + "'");
+		}
+		nextLine();
+	}
+
+	private void expect(char expected) throws IOException {
+		skipSpaces();
+		if (peek() != expected) {
+			throw error("'" + expected + "' attendu");
+		}
+		position++;
+	}
+
+	private int readInt() throws IOException {
+		skipSpaces();
+		int c = peek(), nbDigits = 0;
+		boolean isNegative = c == '-';
+		long value = 0;
+		if (isNegative || c == '+') {
+			position++;
+		}
+		while ((c = peek()) >= '0' && c <= '9') {
+			position++;
+			if ((value = value * 10 + (c - '0')) > Integer.MAX_VALUE) {
+				throw error("entier trop grand");
+			}
+			nbDigits++;
+		}
+		if (nbDigits == 0) {
+			throw error(c == -1 ? "fin de fichier inattendue" : "entier attendu au lieu de '" + (char) c + "'");
+		}
+		return (int) (isNegative ? -value : value);
+	}
+
+	private String readWord() throws IOException {
+		StringBuilder word = new StringBuilder();
+		int c;
+		skipSpaces();
+		while ((c = peek()) != -1 && c != ':' && c != ' ' && c != '\t' && c != '\r' && c != '\n') {
+			word.append((char) bytes[position++]);
+		}
+		return word.toString();
+	}
+
+	private IllegalArgumentException error(String message) {
+		return new IllegalArgumentException(pathFile + ", ligne " + lineNumber + " : " + message);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
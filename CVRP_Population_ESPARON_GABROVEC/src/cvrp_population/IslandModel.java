@@ -0,0 +1,214 @@
+package cvrp_population;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class IslandModel {
+
+	private GeneticAlgorithm[] islands;
+	private long nbGenerations;
+	private int migrationInterval;
+	private int nbMigrants;
+	private boolean isRingTopology;
+	private int nbThreads;
+	private Individual bestIndividual;
+	private double bestCost;
+	private TreeMap<Integer, Double> bestCostsHistory;
+	private SplittableRandom rand;
+	private volatile boolean isCancelled;
+
+	public IslandModel(ProblemInstance instance, long nbGenerations, int nbIndividuals,
+			double pMutation, double diffRate, boolean isTournament, boolean isHGreX, boolean isHybrid, boolean isOptimalSplit,
+			int nbIslands, int migrationInterval, int nbMigrants, boolean isRingTopology) {
+		this.nbGenerations = nbGenerations;
+		this.migrationInterval = migrationInterval;
+		this.nbMigrants = nbMigrants;
+		this.isRingTopology = isRingTopology;
+		nbThreads = Math.min(nbIslands, Runtime.getRuntime().availableProcessors());
+		rand = new SplittableRandom();
+		islands = new GeneticAlgorithm[nbIslands];
+		for (int k = 0; k < nbIslands; k++) {
+			islands[k] = new GeneticAlgorithm(instance, nbGenerations, nbIndividuals,
+					pMutation, diffRate, isTournament, isHGreX, isHybrid, isOptimalSplit, rand.split());
+		}
+		bestCostsHistory = new TreeMap<>();
+	}
+
+	public void exec() {
+		exec(new TerminationPolicy().setMaxGenerations(nbGenerations));
+	}
+
+	// The policy is checked after each epoch, the time budget and the cancellation after each generation too
+	public void exec(TerminationPolicy policy) {
+		long start = System.nanoTime();
+		isCancelled = false;
+		ExecutorService pool = Executors.newFixedThreadPool(nbThreads);
+		try {
+			runEpoch(pool, 0, 0, policy, start);
+			updateBestIndividual();
+			displayDescription();
+			int percentage = -1, newPercentage, to, lastImprovement = 0;
+			double previousBestCost;
+			for (int from = 1; !isCancelled && !policy.isReached(from - 1, start, bestCost, getNbEvaluations(), lastImprovement); from += migrationInterval) {
+				to = (int) Math.min(policy.getMaxGenerations(), from + migrationInterval - 1L);
+				runEpoch(pool, from, to, policy, start);
+				migrate(to);
+				previousBestCost = bestCost;
+				updateBestIndividual();
+				if (bestCost < previousBestCost) {
+					lastImprovement = to;
+				}
+				if ((newPercentage = policy.getPercentage(to, start, getNbEvaluations())) != percentage) {
+					System.out.println((percentage = newPercentage) + "%");
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+		updateBestIndividual();
+		mergeBestCostsHistories();
+		islands[0].displayIndividual(bestIndividual);
+	}
+
+	// Generation 0 initializes the islands, other epochs run generations from..to on every island
+	private void runEpoch(ExecutorService pool, int from, int to, TerminationPolicy policy, long start) {
+		ArrayList<Callable<Void>> tasks = new ArrayList<>(islands.length);
+		for (GeneticAlgorithm island : islands) {
+			tasks.add(() -> {
+				if (from == 0) {
+					island.init();
+				}
+				for (int i = Math.max(from, 1); i <= to && !isCancelled && !policy.isOutOfTime(start); i++) {
+					island.execGeneration(i);
+				}
+				return null;
+			});
+		}
+		try {
+			for (Future<Void> future : pool.invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private void migrate(int i) {
+		if (islands.length < 2) {
+			return;
+		}
+		ArrayList<ArrayList<Individual>> emigrants = new ArrayList<>(islands.length);
+		for (GeneticAlgorithm island : islands) {
+			emigrants.add(island.getBestIndividuals(nbMigrants));
+		}
+		int dest;
+		for (int k = 0; k < islands.length; k++) {
+			if (isRingTopology) {
+				dest = (k + 1) % islands.length;
+			} else if ((dest = rand.nextInt(islands.length - 1)) >= k) {
+				dest++;
+			}
+			for (Individual emigrant : emigrants.get(k)) {
+				islands[dest].immigrate(emigrant, i);
+			}
+		}
+	}
+
+	private void updateBestIndividual() {
+		bestCost = Double.POSITIVE_INFINITY;
+		for (GeneticAlgorithm island : islands) {
+			if (island.getBestCost() < bestCost) {
+				bestCost = island.getBestCost();
+				bestIndividual = island.getBestIndividual();
+			}
+		}
+	}
+
+	private void mergeBestCostsHistories() {
+		TreeMap<Integer, Double> allCosts = new TreeMap<>();
+		for (GeneticAlgorithm island : islands) {
+			for (Map.Entry<Integer, Double> entry : island.getBestCostsHistory().entrySet()) {
+				allCosts.merge(entry.getKey(), entry.getValue(), Math::min);
+			}
+		}
+		bestCostsHistory.clear();
+		double currBest = Double.POSITIVE_INFINITY;
+		for (Map.Entry<Integer, Double> entry : allCosts.entrySet()) {
+			if (entry.getValue() < currBest) {
+				currBest = entry.getValue();
+				bestCostsHistory.put(entry.getKey(), currBest);
+			}
+		}
+	}
+
+	public void displayDescription() {
+		System.out.println("----------------------------------------------------------------------------------------------------");
+		String description = "Modle en les : " + islands.length + " les sur " + nbThreads + " threads";
+		description += "\nTopologie = " + (isRingTopology ? "Anneau" : "Alatoire");
+		description += "\nMigration toutes les " + migrationInterval + " gnrations (" + nbMigrants + " migrants)";
+		description += "\nCot initial global = " + (double) Math.round(bestCost * 1000) / 1000;
+		System.out.println(description);
+		System.out.println("----------------------------------------------------------------------------------------------------");
+	}
+
+	public String getInlineDescription() {
+		String description = "Cot final = " + (double) Math.round(bestCost * 1000) / 1000;
+		description += " | Nb vhicules = " + bestIndividual.getNbVehicles() + " | ";
+		description += islands[0].getInlineParameters();
+		description += " | les = " + islands.length + " | Migration = " + migrationInterval + (isRingTopology ? " (Anneau)" : " (Alatoire)");
+		return description;
+	}
+
+	public ArrayList<Vehicle> toVehicles(Individual individual) {
+		return islands[0].toVehicles(individual);
+	}
+
+	public void cancel() {
+		isCancelled = true;
+	}
+
+	// Best individual of all islands, safe to call from any thread during the run
+	public Individual getBestSnapshot() {
+		Individual best = null, snapshot;
+		for (GeneticAlgorithm island : islands) {
+			if ((snapshot = island.getBestSnapshot()) != null && (best == null || snapshot.getCost() < best.getCost())) {
+				best = snapshot;
+			}
+		}
+		return best;
+	}
+
+	public long getNbEvaluations() {
+		long nbEvaluations = 0;
+		for (GeneticAlgorithm island : islands) {
+			nbEvaluations += island.getNbEvaluations();
+		}
+		return nbEvaluations;
+	}
+
+	public GeneticAlgorithm[] getIslands() {
+		return islands;
+	}
+
+	public Individual getBestIndividual() {
+		return bestIndividual;
+	}
+
+	public double getBestCost() {
+		return bestCost;
+	}
+
+	public TreeMap<Integer, Double> getBestCostsHistory() {
+		return bestCostsHistory;
+	}
+}
@@ -2,26 +2,25 @@ package cvrp_population;
 
 public class Location {
 	
-	private int id;
-	private int x;
-	private int y;
-	private int nbOrders;
-	private boolean isRouted;
+	// Immutable: the same instances are shared by the instance, the vehicles and the displays
+	private final int id;
+	private final int x;
+	private final int y;
+	private final int nbOrders;
+	private final int hashCode;
 	
 	public Location(int id, int x, int y, int nbOrders) {
 		this.id = id;
 		this.x = x;
 		this.y = y;
 		this.nbOrders = nbOrders;
-		isRouted = false;
-	}
-	
-	// For deep copy
-	public Location(Location l) {
-		this.id = l.getId();
-		this.x = l.getX();
-		this.y = l.getY();
-		this.nbOrders = l.getNbOrders();
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + id;
+		result = prime * result + nbOrders;
+		result = prime * result + x;
+		result = prime * result + y;
+		hashCode = result;
 	}
 
 	public int getId() {
@@ -40,12 +39,9 @@ public class Location {
 		return nbOrders;
 	}
 	
-	public boolean getIsRouted() {
-		return isRouted;
-	}
-
-	public void setIsRouted(boolean isRouted) {
-		this.isRouted = isRouted;
+	@Override
+	public int hashCode() {
+		return hashCode;
 	}
 	
 	@Override
@@ -57,6 +53,8 @@ public class Location {
 		if (getClass() != obj.getClass())
 			return false;
 		Location other = (Location) obj;
+		if (hashCode != other.hashCode)
+			return false;
 		if (id != other.id)
 			return false;
 		if (nbOrders != other.nbOrders)
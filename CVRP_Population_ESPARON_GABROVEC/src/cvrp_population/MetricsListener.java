@@ -0,0 +1,11 @@
+package cvrp_population;
+
+// Called by the thread that ran the generation, concurrently with asynchronous workers
+// generationMetrics is reused afterwards: its values must be copied to be kept
+public interface MetricsListener {
+
+	void onGeneration(int generation, double bestCost, GenerationMetrics generationMetrics, RunMetrics runMetrics);
+
+	default void onRunEnd(double bestCost, RunMetrics runMetrics) {
+	}
+}
@@ -0,0 +1,99 @@
+package cvrp_population;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+// Population slots sorted by cached cost: rank queries in O(log n), a replacement moves one slot in the sorted array
+// The hashes of the individuals are counted as well to detect duplicates in O(1)
+public class PopulationIndex {
+
+	private int[] slotsByRank;
+	private int[] ranks;
+	private double[] costs;
+	private long[] hashes;
+	private HashMap<Long, Integer> hashesCounts;
+	private int size;
+
+	public PopulationIndex(ArrayList<Individual> population) {
+		size = population.size();
+		slotsByRank = new int[size];
+		ranks = new int[size];
+		costs = new double[size];
+		hashes = new long[size];
+		hashesCounts = new HashMap<>(size * 2);
+		for (int slot = 0; slot < size; slot++) {
+			costs[slot] = population.get(slot).getCost();
+			insert(slot, slot);
+			hashesCounts.merge(hashes[slot] = population.get(slot).getHash(), 1, Integer::sum);
+		}
+	}
+
+	public void update(int slot, Individual individual) {
+		remove(ranks[slot], size);
+		costs[slot] = individual.getCost();
+		insert(slot, size - 1);
+		if (hashesCounts.merge(hashes[slot], -1, Integer::sum) == 0) {
+			hashesCounts.remove(hashes[slot]);
+		}
+		hashesCounts.merge(hashes[slot] = individual.getHash(), 1, Integer::sum);
+	}
+
+	public boolean contains(long hash) {
+		return hashesCounts.containsKey(hash);
+	}
+
+	// Removes the slot at the given rank from the first count ranks
+	private void remove(int rank, int count) {
+		for (int r = rank; r < count - 1; r++) {
+			ranks[slotsByRank[r] = slotsByRank[r + 1]] = r;
+		}
+	}
+
+	// Inserts the slot among the first count ranks, which are already sorted
+	private void insert(int slot, int count) {
+		int rank = countAtMost(costs[slot], count);
+		for (int r = count; r > rank; r--) {
+			ranks[slotsByRank[r] = slotsByRank[r - 1]] = r;
+		}
+		slotsByRank[rank] = slot;
+		ranks[slot] = rank;
+	}
+
+	public int getSlot(int rank) {
+		return slotsByRank[rank];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int countLessThan(double cost) {
+		int low = 0, high = size, mid;
+		while (low < high) {
+			mid = (low + high) >>> 1;
+			if (costs[slotsByRank[mid]] < cost) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	public int countAtMost(double cost) {
+		return countAtMost(cost, size);
+	}
+
+	private int countAtMost(double cost, int count) {
+		int low = 0, high = count, mid;
+		while (low < high) {
+			mid = (low + high) >>> 1;
+			if (costs[slotsByRank[mid]] <= cost) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
@@ -0,0 +1,176 @@
+package cvrp_population;
+
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Immutable once built, a single instance can be shared by every solve and thread working on it
+public class ProblemInstance {
+
+	public static final int NB_NEAREST_NEIGHBORS = 20;
+	// The distances are a single array of nbLocations doubles indexed by int, about 16 GB at this size
+	public static final int MAX_NB_LOCATIONS = 46340;
+
+	private final List<Location> locations;
+	private final Location[] locationsById;
+	private final int nbLocations;
+	private final int maxCapacity;
+	private final boolean isRoundedDistances;
+	private final double[] distances;
+	// Rows of a mapped binary file instead of the array, read from the page cache without any copy on the heap
+	private final DoubleBuffer[] distancesRows;
+	private final int[] demands;
+	private final int[][] nearestNeighbors;
+
+	public ProblemInstance(List<Location> locations, int maxCapacity) {
+		this(locations, maxCapacity, false, null);
+	}
+
+	// Euclidean distances rounded to the nearest integer as in the CVRPLIB, so that the costs match its reference values
+	// Distances precomputed by rows of ids, null to compute them
+	public ProblemInstance(List<Location> locations, int maxCapacity, boolean isRoundedDistances, double[] distances) {
+		this(locations, maxCapacity, isRoundedDistances, distances, null);
+	}
+
+	// One buffer of nbLocations distances by id, kept open by the instance
+	static ProblemInstance withMappedDistances(List<Location> locations, int maxCapacity, boolean isRoundedDistances, DoubleBuffer[] distancesRows) {
+		return new ProblemInstance(locations, maxCapacity, isRoundedDistances, null, distancesRows);
+	}
+
+	private ProblemInstance(List<Location> locations, int maxCapacity, boolean isRoundedDistances, double[] distances, DoubleBuffer[] distancesRows) {
+		this.locations = Collections.unmodifiableList(new ArrayList<>(locations));
+		this.maxCapacity = maxCapacity;
+		this.isRoundedDistances = isRoundedDistances;
+		nbLocations = locations.size();
+		int distancesLength = getDistancesLength(nbLocations);
+		locationsById = new Location[nbLocations];
+		demands = new int[nbLocations];
+		nearestNeighbors = new int[nbLocations][];
+		initLocationsById();
+		this.distancesRows = distancesRows;
+		if (distancesRows != null) {
+			this.distances = null;
+			checkDistancesRows();
+		} else if (distances == null) {
+			this.distances = new double[distancesLength];
+			initDistances();
+		} else if (distances.length == distancesLength) {
+			this.distances = distances;
+		} else {
+			throw new IllegalArgumentException("Matrice des distances de taille " + distances.length + " au lieu de " + nbLocations + "");
+		}
+		initDemands();
+		initNearestNeighbors();
+	}
+	
+	// Fails clearly instead of overflowing the index of the matrix
+	public static int getDistancesLength(int nbLocations) {
+		if (nbLocations < 2) {
+			throw new IllegalArgumentException("Instance sans client : " + nbLocations + " emplacement(s), le dpt et au moins un client sont attendus");
+		}
+		if (nbLocations > MAX_NB_LOCATIONS) {
+			throw new IllegalArgumentException("Instance trop grande : " + nbLocations + " emplacements, la matrice des distances en admet au plus " + MAX_NB_LOCATIONS);
+		}
+		return nbLocations * nbLocations;
+	}
+
+	private void initLocationsById() {
+		for (Location l : locations) {
+			if (l.getId() < 0 || l.getId() >= nbLocations || locationsById[l.getId()] != null) {
+				throw new IllegalArgumentException("Identifiant de client invalide ou en double : " + l.getId());
+			}
+			if (l.getNbOrders() > maxCapacity) {
+				throw new IllegalArgumentException("Demande du client " + l.getId() + " suprieure  la capacit : " + l.getNbOrders());
+			}
+			locationsById[l.getId()] = l;
+		}
+	}
+
+	private void checkDistancesRows() {
+		if (distancesRows.length != nbLocations) {
+			throw new IllegalArgumentException("Matrice des distances de " + distancesRows.length + " lignes au lieu de " + nbLocations);
+		}
+		for (DoubleBuffer row : distancesRows) {
+			if (row.remaining() != nbLocations) {
+				throw new IllegalArgumentException("Ligne de la matrice des distances de taille " + row.remaining() + " au lieu de " + nbLocations);
+			}
+		}
+	}
+
+	private void initDistances() {
+		int iId, jId;
+		double distance;
+		for (int i = 0; i < nbLocations - 1; i++) {
+			iId = locations.get(i).getId();
+			for (int j = i + 1; j < nbLocations; j++) {
+				jId = locations.get(j).getId();
+				distance = Math.sqrt(Math.pow(locations.get(i).getX() - locations.get(j).getX(), 2) + Math.pow(locations.get(i).getY() - locations.get(j).getY(), 2));
+				if (isRoundedDistances) {
+					distance = Math.round(distance);
+				}
+				distances[iId * nbLocations + jId] = distance;
+				distances[jId * nbLocations + iId] = distance;
+			}
+		}
+	}
+
+	private void initDemands() {
+		for (Location l : locations) {
+			demands[l.getId()] = l.getNbOrders();
+		}
+	}
+
+	// Customers sorted by increasing distance, the depot and the location itself excluded
+	private void initNearestNeighbors() {
+		int nbNeighbors = Math.min(NB_NEAREST_NEIGHBORS, Math.max(0, nbLocations - 2));
+		SpatialGrid grid = new SpatialGrid(locationsById);
+		for (int id = 0; id < nbLocations; id++) {
+			nearestNeighbors[id] = grid.getNearestCustomers(id, nbNeighbors);
+		}
+	}
+
+	public double getDistance(int fromId, int toId) {
+		return distancesRows == null ? distances[fromId * nbLocations + toId] : distancesRows[fromId].get(toId);
+	}
+
+	public int getDemand(int id) {
+		return demands[id];
+	}
+
+	public int[] getNearestNeighbors(int id) {
+		return nearestNeighbors[id];
+	}
+
+	public List<Location> getLocations() {
+		return locations;
+	}
+	
+	public Location getLocation(int id) {
+		return locationsById[id];
+	}
+
+	public int getNbLocations() {
+		return nbLocations;
+	}
+
+	public int getNbCustomers() {
+		return nbLocations - 1;
+	}
+
+	// Random key of the undirected edge between two locations, the same for every run
+	public long getEdgeKey(int fromId, int toId) {
+		long z = Math.min(fromId, toId) * (long) nbLocations + Math.max(fromId, toId) + 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	public int getMaxCapacity() {
+		return maxCapacity;
+	}
+
+	public boolean isRoundedDistances() {
+		return isRoundedDistances;
+	}
+}
@@ -1,32 +1,76 @@
 package cvrp_population;
 
-import java.util.ArrayList;
-
 public class Program {
 	
-	// A3205, A3705, A6109, A6409, A8010...
+	// A3205, A3705, A6109, A6409, A8010... ou un fichier CVRPLIB ".vrp" (sa capacit remplace MAX_VEHICLES_CAPACITY)
 	private static final String DATA_FILE = "A3205.txt";
 	
-	private static final int MAX_VEHICLES_CAPACITY = 100;
+	static final int MAX_VEHICLES_CAPACITY = 100;
+	
+	static final long NB_GENERATIONS = 500;
+	static final int NB_INDIVIDUALS = 10;
+	static final double P_MUTATION = 0.01;
+	static final double DIFF_RATE = 0.01;
+	static final boolean IS_TOURNAMENT = true;
+	static final boolean IS_HGREX = true;
+	static final boolean IS_HYBRID = true;
+	// Greedy reconstruction by default as before, true for the optimal Split of the giant tours
+	static final boolean IS_OPTIMAL_SPLIT = false;
+	// Best improvement by default as before, true for first improvement (faster passes on large instances)
+	static final boolean IS_FIRST_IMPROVEMENT = false;
+	// Only used by best improvement, for a single large instance without islands
+	static final boolean IS_PARALLEL_DESCENT = false;
+	// Workers breeding children concurrently on the population, without islands
+	private static final int NB_WORKERS = 1;
+	// Phases timers and counters printed at the end, and Flight Recorder events when built on JDK 11+ and a recording is running
+	private static final boolean IS_METRICS = false;
+	private static final String JFR_LISTENER_CLASS = "cvrp_population.JfrMetricsListener";
 	
-	private static final long NB_GENERATIONS = 500;
-	private static final int NB_INDIVIDUALS = 10;
-	private static final double P_MUTATION = 0.01;
-	private static final double DIFF_RATE = 0.01;
-	private static final boolean IS_TOURNAMENT = true;
-	private static final boolean IS_HGREX = true;
-	private static final boolean IS_HYBRID = true;
+	private static final boolean IS_ISLAND_MODEL = false;
+	private static final int NB_ISLANDS = Runtime.getRuntime().availableProcessors();
+	private static final int MIGRATION_INTERVAL = 50;
+	private static final int NB_MIGRANTS = 1;
+	private static final boolean IS_RING_TOPOLOGY = true;
 	
 	public static void main(String[] args) {
- 	    ArrayList<Location> locations = Util.readData("data/" + DATA_FILE);
+ 	    ProblemInstance instance = InstanceReader.read("data/" + DATA_FILE, MAX_VEHICLES_CAPACITY);
  	    
-	    GeneticAlgorithm ga = new GeneticAlgorithm(locations, MAX_VEHICLES_CAPACITY, NB_GENERATIONS, NB_INDIVIDUALS, 
-	    		P_MUTATION, DIFF_RATE, IS_TOURNAMENT, IS_HGREX, IS_HYBRID);
-        ga.exec();
-        
-        String descGA = ga.getInlineDescription();
-        String parametersDesc = "Fichier : " + DATA_FILE + " | Nombre de clients : " + (locations.size() - 1) + " | Capacit maximale des vhicules : " + MAX_VEHICLES_CAPACITY;
-        Util.drawGraph("Graphe CVRP Population", parametersDesc, descGA, ga.getBestIndividual());
-        Util.drawLineChart("Line chart CVRP Population", parametersDesc, descGA, ga.getBestCostsHistory());
+	    // Limits can be combined: setTimeBudget(millis), setTargetCost(cost), setMaxEvaluations(nb), setMaxStallGenerations(nb)
+	    TerminationPolicy policy = new TerminationPolicy().setMaxGenerations(NB_GENERATIONS);
+	    String descGA, parametersDesc = "Fichier : " + DATA_FILE + " | Nombre de clients : " + instance.getNbCustomers() + " | Capacit maximale des vhicules : " + instance.getMaxCapacity();
+	    if (IS_ISLAND_MODEL) {
+	    	IslandModel im = new IslandModel(instance, NB_GENERATIONS, NB_INDIVIDUALS, 
+		    		P_MUTATION, DIFF_RATE, IS_TOURNAMENT, IS_HGREX, IS_HYBRID, IS_OPTIMAL_SPLIT, NB_ISLANDS, MIGRATION_INTERVAL, NB_MIGRANTS, IS_RING_TOPOLOGY);
+	    	for (GeneticAlgorithm island : im.getIslands()) {
+	    		island.setFirstImprovement(IS_FIRST_IMPROVEMENT);
+	    	}
+	    	im.exec(policy);
+	    	descGA = im.getInlineDescription();
+	    	Util.drawGraph("Graphe CVRP Population", parametersDesc, descGA, im.toVehicles(im.getBestIndividual()));
+	        Util.drawLineChart("Line chart CVRP Population", parametersDesc, descGA, im.getBestCostsHistory());
+	    } else {
+		    GeneticAlgorithm ga = new GeneticAlgorithm(instance, NB_GENERATIONS, NB_INDIVIDUALS, 
+		    		P_MUTATION, DIFF_RATE, IS_TOURNAMENT, IS_HGREX, IS_HYBRID, IS_OPTIMAL_SPLIT);
+		    ga.setFirstImprovement(IS_FIRST_IMPROVEMENT);
+		    ga.setParallelDescent(IS_PARALLEL_DESCENT);
+		    ga.setNbWorkers(NB_WORKERS);
+		    if (IS_METRICS) {
+		    	ga.enableMetrics();
+		    	addJfrListener(ga);
+		    }
+	        ga.exec(policy);
+	        descGA = ga.getInlineDescription();
+	        Util.drawGraph("Graphe CVRP Population", parametersDesc, descGA, ga.toVehicles(ga.getBestIndividual()));
+	        Util.drawLineChart("Line chart CVRP Population", parametersDesc, descGA, ga.getBestCostsHistory());
+	    }
     }
+	
+	// Missing when built for Java 8, the metrics are then only printed
+	private static void addJfrListener(GeneticAlgorithm ga) {
+		try {
+			ga.addMetricsListener((MetricsListener) Class.forName(JFR_LISTENER_CLASS).getDeclaredConstructor().newInstance());
+		} catch (ReflectiveOperationException | LinkageError e) {
+			System.out.println("vnements Flight Recorder indisponibles : " + e);
+		}
+	}
 }
@@ -0,0 +1,104 @@
+package cvrp_population;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Totals of the generations of a run, added by all the workers and readable from any thread during the run
+public class RunMetrics {
+
+	private long startNanos;
+	private LongAdder[] phasesNanos;
+	private LongAdder nbGenerations;
+	private LongAdder nbEvaluations;
+	private LongAdder nbAcceptedChildren;
+	private LongAdder nbRejectedChildren;
+	private LongAdder nbDescentPasses;
+	private LongAdder nbDescentMoves;
+	private LongAdder nbEvaluatedMoves;
+
+	public RunMetrics() {
+		phasesNanos = new LongAdder[GenerationMetrics.PHASES_NAMES.length];
+		for (int phase = 0; phase < phasesNanos.length; phase++) {
+			phasesNanos[phase] = new LongAdder();
+		}
+		nbGenerations = new LongAdder();
+		nbEvaluations = new LongAdder();
+		nbAcceptedChildren = new LongAdder();
+		nbRejectedChildren = new LongAdder();
+		nbDescentPasses = new LongAdder();
+		nbDescentMoves = new LongAdder();
+		nbEvaluatedMoves = new LongAdder();
+		startNanos = System.nanoTime();
+	}
+
+	void add(GenerationMetrics generationMetrics) {
+		for (int phase = 0; phase < phasesNanos.length; phase++) {
+			phasesNanos[phase].add(generationMetrics.getPhaseNanos(phase));
+		}
+		nbGenerations.increment();
+		nbEvaluations.add(generationMetrics.getNbEvaluations());
+		nbAcceptedChildren.add(generationMetrics.getNbAcceptedChildren());
+		nbRejectedChildren.add(generationMetrics.getNbRejectedChildren());
+		nbDescentPasses.add(generationMetrics.getNbDescentPasses());
+		nbDescentMoves.add(generationMetrics.getNbDescentMoves());
+		nbEvaluatedMoves.add(generationMetrics.getNbEvaluatedMoves());
+	}
+
+	public long getElapsedNanos() {
+		return System.nanoTime() - startNanos;
+	}
+
+	// Summed over the workers: may exceed the elapsed time with asynchronous workers
+	public long getPhaseNanos(int phase) {
+		return phasesNanos[phase].sum();
+	}
+
+	public long getNbGenerations() {
+		return nbGenerations.sum();
+	}
+
+	public long getNbEvaluations() {
+		return nbEvaluations.sum();
+	}
+
+	public long getNbAcceptedChildren() {
+		return nbAcceptedChildren.sum();
+	}
+
+	public long getNbRejectedChildren() {
+		return nbRejectedChildren.sum();
+	}
+
+	public long getNbDescentPasses() {
+		return nbDescentPasses.sum();
+	}
+
+	public long getNbDescentMoves() {
+		return nbDescentMoves.sum();
+	}
+
+	public long getNbEvaluatedMoves() {
+		return nbEvaluatedMoves.sum();
+	}
+
+	// Moves evaluated per second of descent
+	public double getMovesPerSecond() {
+		long descentNanos = getPhaseNanos(GenerationMetrics.DESCENT);
+		return descentNanos == 0 ? 0 : getNbEvaluatedMoves() * 1e9 / descentNanos;
+	}
+
+	public String getSummary() {
+		long totalNanos = 0;
+		for (int phase = 0; phase < phasesNanos.length; phase++) {
+			totalNanos += getPhaseNanos(phase);
+		}
+		String summary = "Gnrations = " + getNbGenerations() + " | valuations = " + getNbEvaluations()
+				+ " | Enfants accepts = " + getNbAcceptedChildren() + " | Enfants rejets = " + getNbRejectedChildren();
+		for (int phase = 0; phase < phasesNanos.length; phase++) {
+			summary += "\n" + GenerationMetrics.PHASES_NAMES[phase] + " : " + getPhaseNanos(phase) / 1000000 + " ms ("
+					+ (totalNanos == 0 ? 0 : Math.round(getPhaseNanos(phase) * 100.0 / totalNanos)) + " %)";
+		}
+		summary += "\nPasses de descente = " + getNbDescentPasses() + " | Mouvements appliqus = " + getNbDescentMoves()
+				+ " | Mouvements valus par seconde = " + Math.round(getMovesPerSecond());
+		return summary;
+	}
+}
@@ -0,0 +1,124 @@
+package cvrp_population;
+
+// Uniform grid over the coordinates of the customers (about two per cell) for the k nearest neighbors queries
+// A query visits rings of cells around its location until no unvisited cell can hold a closer customer
+class SpatialGrid {
+
+	private static final int CUSTOMERS_PER_CELL = 2;
+
+	private Location[] locationsById;
+	private int minX;
+	private int minY;
+	private long cellSize;
+	private int nbColumns;
+	private int nbRows;
+	// Customers ids sorted by cell, those of cell c are between cellsStarts[c] and cellsStarts[c + 1]
+	private int[] cellsStarts;
+	private int[] cellsCustomers;
+	// In double as the squares of differences of ints can exceed a long, exact up to 2^53
+	private double[] candidatesSquaredDistances;
+
+	SpatialGrid(Location[] locationsById) {
+		this.locationsById = locationsById;
+		int nbCustomers = locationsById.length - 1, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+		minX = minY = Integer.MAX_VALUE;
+		for (int id = 1; id < locationsById.length; id++) {
+			minX = Math.min(minX, locationsById[id].getX());
+			minY = Math.min(minY, locationsById[id].getY());
+			maxX = Math.max(maxX, locationsById[id].getX());
+			maxY = Math.max(maxY, locationsById[id].getY());
+		}
+		long width = nbCustomers > 0 ? (long) maxX - minX + 1 : 1, height = nbCustomers > 0 ? (long) maxY - minY + 1 : 1;
+		cellSize = Math.max(1, (long) Math.ceil(Math.sqrt((double) width * height * CUSTOMERS_PER_CELL / Math.max(1, nbCustomers))));
+		nbColumns = (int) ((width + cellSize - 1) / cellSize);
+		nbRows = (int) ((height + cellSize - 1) / cellSize);
+
+		cellsStarts = new int[nbColumns * nbRows + 1];
+		cellsCustomers = new int[nbCustomers];
+		for (int id = 1; id < locationsById.length; id++) {
+			cellsStarts[getCell(locationsById[id]) + 1]++;
+		}
+		for (int c = 0; c < nbColumns * nbRows; c++) {
+			cellsStarts[c + 1] += cellsStarts[c];
+		}
+		int[] nextPositions = cellsStarts.clone();
+		for (int id = 1; id < locationsById.length; id++) {
+			cellsCustomers[nextPositions[getCell(locationsById[id])]++] = id;
+		}
+	}
+
+	private int getCell(Location l) {
+		return getRow(l.getY()) * nbColumns + getColumn(l.getX());
+	}
+
+	private int getColumn(int x) {
+		return (int) Math.min(nbColumns - 1, Math.max(0, ((long) x - minX) / cellSize));
+	}
+
+	private int getRow(int y) {
+		return (int) Math.min(nbRows - 1, Math.max(0, ((long) y - minY) / cellSize));
+	}
+
+	// The k customers closest to id (itself excluded) by increasing distance, ties broken by id
+	int[] getNearestCustomers(int id, int k) {
+		int[] neighbors = new int[k];
+		if (candidatesSquaredDistances == null || candidatesSquaredDistances.length < k) {
+			candidatesSquaredDistances = new double[k];
+		}
+		Location l = locationsById[id];
+		int column = getColumn(l.getX()), row = getRow(l.getY()), size = 0;
+		double minRingDistance;
+		for (int ring = 0; ring < Math.max(nbColumns, nbRows); ring++) {
+			// Any customer of this ring or beyond is at least (ring - 1) cells away on one axis
+			minRingDistance = (double) Math.max(0, ring - 1) * cellSize;
+			if (size == k && minRingDistance * minRingDistance > candidatesSquaredDistances[k - 1]) {
+				break;
+			}
+			for (int r = row - ring; r <= row + ring; r++) {
+				if (r < 0 || r >= nbRows) {
+					continue;
+				}
+				for (int c = column - ring; c <= column + ring; c += (r == row - ring || r == row + ring) ? 1 : 2 * ring) {
+					if (c >= 0 && c < nbColumns) {
+						size = addCellCustomers(id, r * nbColumns + c, neighbors, size);
+					}
+					if (ring == 0) {
+						break;
+					}
+				}
+			}
+		}
+		return neighbors;
+	}
+
+	// Insertion of the customers of the cell into the sorted candidates, size returned
+	private int addCellCustomers(int id, int cell, int[] neighbors, int size) {
+		Location l = locationsById[id], candidate;
+		double squaredDistance, dx, dy;
+		int k = neighbors.length, pos, candidateId;
+		for (int i = cellsStarts[cell]; i < cellsStarts[cell + 1]; i++) {
+			if ((candidateId = cellsCustomers[i]) == id) {
+				continue;
+			}
+			candidate = locationsById[candidateId];
+			// In long before subtracting, the difference of two ints can overflow
+			dx = (long) candidate.getX() - l.getX();
+			dy = (long) candidate.getY() - l.getY();
+			squaredDistance = dx * dx + dy * dy;
+			if (size == k && !isCloser(squaredDistance, candidateId, candidatesSquaredDistances[k - 1], neighbors[k - 1])) {
+				continue;
+			}
+			for (pos = (size < k ? size++ : k - 1); pos > 0 && isCloser(squaredDistance, candidateId, candidatesSquaredDistances[pos - 1], neighbors[pos - 1]); pos--) {
+				neighbors[pos] = neighbors[pos - 1];
+				candidatesSquaredDistances[pos] = candidatesSquaredDistances[pos - 1];
+			}
+			neighbors[pos] = candidateId;
+			candidatesSquaredDistances[pos] = squaredDistance;
+		}
+		return size;
+	}
+
+	private boolean isCloser(double squaredDistance, int id, double otherSquaredDistance, int otherId) {
+		return squaredDistance < otherSquaredDistance || (squaredDistance == otherSquaredDistance && id < otherId);
+	}
+}
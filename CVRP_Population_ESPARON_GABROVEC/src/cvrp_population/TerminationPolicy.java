@@ -0,0 +1,68 @@
+package cvrp_population;
+
+import java.util.concurrent.TimeUnit;
+
+// Limits of a run, it stops as soon as one of them is reached (no limit by default)
+public class TerminationPolicy {
+
+	private long maxGenerations = Long.MAX_VALUE;
+	private long timeBudgetNanos = Long.MAX_VALUE;
+	private double targetCost = Double.NEGATIVE_INFINITY;
+	private long maxEvaluations = Long.MAX_VALUE;
+	private long maxStallGenerations = Long.MAX_VALUE;
+
+	public TerminationPolicy setMaxGenerations(long maxGenerations) {
+		this.maxGenerations = maxGenerations;
+		return this;
+	}
+
+	// Saturated at Long.MAX_VALUE for huge budgets
+	public TerminationPolicy setTimeBudget(long millis) {
+		timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+		return this;
+	}
+
+	public TerminationPolicy setTargetCost(double targetCost) {
+		this.targetCost = targetCost;
+		return this;
+	}
+
+	public TerminationPolicy setMaxEvaluations(long maxEvaluations) {
+		this.maxEvaluations = maxEvaluations;
+		return this;
+	}
+
+	// Number of generations without improvement of the best cost
+	public TerminationPolicy setMaxStallGenerations(long maxStallGenerations) {
+		this.maxStallGenerations = maxStallGenerations;
+		return this;
+	}
+
+	public long getMaxGenerations() {
+		return maxGenerations;
+	}
+
+	public boolean isOutOfTime(long startNanos) {
+		return System.nanoTime() - startNanos >= timeBudgetNanos;
+	}
+
+	public boolean isReached(long generation, long startNanos, double bestCost, long nbEvaluations, long lastImprovementGeneration) {
+		return generation >= maxGenerations || bestCost <= targetCost || nbEvaluations >= maxEvaluations
+				|| generation - lastImprovementGeneration >= maxStallGenerations || isOutOfTime(startNanos);
+	}
+
+	// Progress towards the closest of the generations, time and evaluations limits
+	public int getPercentage(long generation, long startNanos, long nbEvaluations) {
+		double progress = 0;
+		if (maxGenerations != Long.MAX_VALUE) {
+			progress = Math.max(progress, (double) generation / maxGenerations);
+		}
+		if (timeBudgetNanos != Long.MAX_VALUE) {
+			progress = Math.max(progress, (double) (System.nanoTime() - startNanos) / timeBudgetNanos);
+		}
+		if (maxEvaluations != Long.MAX_VALUE) {
+			progress = Math.max(progress, (double) nbEvaluations / maxEvaluations);
+		}
+		return (int) (Math.min(progress, 1) * 100);
+	}
+}
@@ -1,12 +1,7 @@
 package cvrp_population;
 
 import java.awt.Color;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 import java.util.TreeMap;
 
 import javax.swing.BorderFactory;
@@ -19,64 +14,11 @@ import drawings.DrawLineChart;
 
 public abstract class Util {
 	
-	private static HashMap<Integer, HashMap<Integer, Double>> distances;
-	
-	public static HashMap<Integer, HashMap<Integer, Double>> getDistances() {
-		return distances;
-	}
-	
+	// Fails on the first malformed line instead of returning a partial instance
 	public static ArrayList<Location> readData(String pathFile) {
-		ArrayList<Location> locations = new ArrayList<Location>();				
-		int[] locationValues = new int[4];
-		boolean firstLine = true;
-		try {
-			List<String> lines = Files.readAllLines(Paths.get(pathFile));
-			for (String line : lines) {
-				if(firstLine) {
-					firstLine = false;
-					continue;
-				}
-				int count = 0;
-				for (String data : line.split(";")) {
-					locationValues[count] = Integer.valueOf(data);
-					count++;
-				}
-				Location l = new Location(locationValues[0], locationValues[1], locationValues[2], locationValues[3]);
-				locations.add(l);
-			}
-		} catch (NumberFormatException e) {
-			System.err.print(e.getMessage());
-		} catch (IOException e) {
-			System.err.println(e.getMessage());
-		}
-		
-		initDistances(locations);
-		return locations;
+		return InstanceReader.readLocations(pathFile);
 	}
 	
-	private static void initDistances(ArrayList<Location> locations) {
-    	distances = new HashMap<>();
-    	int nbCustomers = locations.size();
-    	double distance;
-    	for (int i = 0; i < nbCustomers - 1; i++) {
-            for (int j = i + 1; j < nbCustomers; j++) {
-                distance = Math.sqrt(Math.pow(locations.get(i).getX() - locations.get(j).getX(), 2) + Math.pow(locations.get(i).getY() - locations.get(j).getY(), 2));
-                addDistance(locations.get(i).getId(), locations.get(j).getId(), distance);
-                addDistance(locations.get(j).getId(), locations.get(i).getId(), distance);
-            }
-        }
-    }
-    
-    private static void addDistance(int iId, int jId, double distance) {
-    	if(distances.containsKey(iId)) {
-        	distances.get(iId).put(jId, distance);
-        } else {
-        	HashMap<Integer, Double> jMap = new HashMap<>();
-        	jMap.put(jId, distance);
-        	distances.put(iId, jMap);
-        }
-    }
-    
     public static Location getLocationById(int id, ArrayList<Location> locations) {
     	Location l = null;
 		for (Location currLoc : locations) {
@@ -88,18 +30,6 @@ public abstract class Util {
 		return l;
 	}
     
-    public static ArrayList<Location> getLocations(ArrayList<Vehicle> individual) {
-		ArrayList<Location> locations = new ArrayList<>();
-		for (Vehicle v : individual) {
-			for (Location l : v.getRoute()) {
-				if (l.getId() != 0) {
-					locations.add(l);
-				}
-			}
-		}
-		return locations;
-	}
-    
 	public static void drawGraph(String title, String parametersDesc, String desc, ArrayList<Vehicle> individual) {
 		JFrame frame = new JFrame(title);
         JPanel mainPanel = new JPanel();
@@ -132,22 +62,6 @@ public abstract class Util {
         frame.setVisible(true);
     }
 	
-	public static ArrayList<Location> createDeepCopyLocations(ArrayList<Location> source) {
-		ArrayList<Location> copy = new ArrayList<Location>();
-		for (Location l : source) {
-			copy.add(new Location(l));
-		}
-        return copy;
-    }
-	
-	public static ArrayList<Vehicle> createDeepCopyIndividual(ArrayList<Vehicle> source) {
-    	ArrayList<Vehicle> copy = new ArrayList<>();
-        for (Vehicle v : source) {
-        	copy.add(new Vehicle(v));
-        }
-        return copy;
-    }
-
 	public static String formatInt(int number) {
 		char[] suffixes = {'k', 'm', 'g', 't', 'p', 'e' };
 		String string = String.valueOf(number);
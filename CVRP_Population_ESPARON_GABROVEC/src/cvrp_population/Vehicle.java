@@ -16,18 +16,6 @@ public class Vehicle {
         this.currentLoading = 0;
     }
     
-    // For deep copy
-	public Vehicle(Vehicle v) {
-		ArrayList<Location> copyRoute = new ArrayList<>();
-    	for (Location l : v.getRoute()) {
-    		copyRoute.add(new Location(l));
-    	}
-    	this.route = copyRoute;
-    	this.capacity = v.getCapacity();
-    	this.currentLocationId = v.getCurrentLocationId();
-    	this.currentLoading = v.getCurrentLoading();
-    }
-    
     public boolean fits(int nbOrders) {
         return capacity >= nbOrders + currentLoading;
     }
@@ -37,7 +25,6 @@ public class Vehicle {
 			return false;
 		}
 		route.add(l);
-        l.setIsRouted(true);
         currentLocationId = l.getId();
         currentLoading += l.getNbOrders();
         return true;
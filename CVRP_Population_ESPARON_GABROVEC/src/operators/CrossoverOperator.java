@@ -1,105 +1,133 @@
 package operators;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.BitSet;
 
 import cvrp_population.GeneticAlgorithm;
-import cvrp_population.Location;
-import cvrp_population.Util;
-import cvrp_population.Vehicle;
+import cvrp_population.Individual;
+import cvrp_population.ProblemInstance;
 
 public class CrossoverOperator {
 	
 	private GeneticAlgorithm ga;
+	private ProblemInstance instance;
+	private int[] p1Successors;
+	private int[] p2Successors;
+	private BitSet visited;
+	private int[] child1Marks;
+	private int[] child2Marks;
+	private int currentMark;
 	
-	public CrossoverOperator(GeneticAlgorithm ga) {
+	public CrossoverOperator(GeneticAlgorithm ga, ProblemInstance instance) {
 		this.ga = ga;
+		this.instance = instance;
+		p1Successors = new int[instance.getNbLocations()];
+		p2Successors = new int[instance.getNbLocations()];
+		visited = new BitSet(instance.getNbLocations());
+		child1Marks = new int[instance.getNbLocations()];
+		child2Marks = new int[instance.getNbLocations()];
 	}
 	
-	public ArrayList<ArrayList<Vehicle>> oXCrossover(ArrayList<Vehicle> p1, ArrayList<Vehicle> p2) {
-		ArrayList<Location> p1Locations = Util.getLocations(p1);
-		ArrayList<Location> p2Locations = Util.getLocations(p2);
-		int firstPoint = ga.getRand().nextInt(p1Locations.size() - 1), secondPoint = ga.getRand().nextInt(p1Locations.size());
+	// Single pass: the segment keeps its positions and the other parent fills the rest from maxPoint onwards
+	public ArrayList<Individual> oXCrossover(Individual p1, Individual p2) {
+		int[] p1Tour = p1.getTour(), p2Tour = p2.getTour();
+		int nbCustomers = p1Tour.length;
+		int firstPoint = ga.getRand().nextInt(nbCustomers - 1), secondPoint = ga.getRand().nextInt(nbCustomers);
 		int minPoint = Math.min(firstPoint, secondPoint), maxPoint = Math.max(firstPoint, secondPoint);
-		ArrayList<Location> child1 = new ArrayList<>(), child2 = new ArrayList<>();
-		child1.addAll(p1Locations.subList(minPoint, maxPoint));
-		child2.addAll(p2Locations.subList(minPoint, maxPoint));
+		int[] child1 = new int[nbCustomers], child2 = new int[nbCustomers];
+		int mark = nextMark();
+		System.arraycopy(p1Tour, minPoint, child1, minPoint, maxPoint - minPoint);
+		System.arraycopy(p2Tour, minPoint, child2, minPoint, maxPoint - minPoint);
+		for (int i = minPoint; i < maxPoint; i++) {
+			child1Marks[p1Tour[i]] = mark;
+			child2Marks[p2Tour[i]] = mark;
+		}
 		
-		int currLocIdx = 0;
-		Location currLocP1, currLocP2;
-		for (int i = 0; i < p1Locations.size(); i++) {
-			currLocIdx = (maxPoint + i) % p1Locations.size();
-			currLocP1 = p1Locations.get(currLocIdx);
-			currLocP2 = p2Locations.get(currLocIdx);
-			if (!child1.contains(currLocP2)) {
-				child1.add(currLocP2);
+		int child1Idx = maxPoint, child2Idx = maxPoint, currLocP1, currLocP2;
+		for (int currLocIdx = maxPoint, i = 0; i < nbCustomers; i++, currLocIdx = (currLocIdx == nbCustomers - 1) ? 0 : currLocIdx + 1) {
+			currLocP1 = p1Tour[currLocIdx];
+			currLocP2 = p2Tour[currLocIdx];
+			if (child1Marks[currLocP2] != mark) {
+				child1[child1Idx] = currLocP2;
+				child1Idx = (child1Idx == nbCustomers - 1) ? 0 : child1Idx + 1;
 			}
-			if (!child2.contains(currLocP1)) {
-				child2.add(currLocP1);
+			if (child2Marks[currLocP1] != mark) {
+				child2[child2Idx] = currLocP1;
+				child2Idx = (child2Idx == nbCustomers - 1) ? 0 : child2Idx + 1;
 			}
 		}
 		
-		Collections.rotate(child1, minPoint);
-		Collections.rotate(child2, minPoint);
-		ArrayList<ArrayList<Vehicle>> childs = new ArrayList<>();
+		ArrayList<Individual> childs = new ArrayList<>(2);
 		childs.add(ga.reconstruct(child1));
 		childs.add(ga.reconstruct(child2));
 		
 		return childs;
 	}
 	
-	public ArrayList<Vehicle> hGreXCrossover(ArrayList<Vehicle> p1, ArrayList<Vehicle> p2) {
-		ArrayList<Location> p1Locations = Util.getLocations(p1);
-		HashMap<int[], Double> pCosts = getEdgesCosts(p1Locations);
-		ArrayList<Location> p2Locations = Util.getLocations(p2);
-		pCosts.putAll(getEdgesCosts(p2Locations));
-		double distance, minCost;
-		int[] minEdge, key;
-		HashMap<Integer, HashMap<Integer, Double>> distances = Util.getDistances();
+	// Marks are stamped per call so that the membership masks never need to be cleared
+	private int nextMark() {
+		if (currentMark == Integer.MAX_VALUE) {
+			Arrays.fill(child1Marks, 0);
+			Arrays.fill(child2Marks, 0);
+			currentMark = 0;
+		}
+		return ++currentMark;
+	}
+	
+	public Individual hGreXCrossover(Individual p1, Individual p2) {
+		int[] p1Tour = p1.getTour();
+		int nbCustomers = p1Tour.length, lastLocId, nextLocId;
+		fillSuccessors(p1Tour, p1Successors);
+		fillSuccessors(p2.getTour(), p2Successors);
+		visited.clear();
 		
-		ArrayList<Integer> child = new ArrayList<>();
-		int randStart = ga.getRand().nextInt(p1Locations.size() - 1);
-		child.add(p1Locations.get(randStart).getId());
-		int lastLocId = p1Locations.get(randStart + 1).getId();
-		child.add(lastLocId);
+		int[] child = new int[nbCustomers];
+		int randStart = ga.getRand().nextInt(nbCustomers - 1);
+		visited.set(child[0] = p1Tour[randStart]);
+		visited.set(child[1] = lastLocId = p1Tour[randStart + 1]);
 		
-		while (child.size() < p1Locations.size()) {
-			minCost = Double.POSITIVE_INFINITY;
-			minEdge = null;
-			for (Map.Entry<int[], Double> entry : pCosts.entrySet()) {
-				key = entry.getKey();
-				if (key[0] == lastLocId && !child.contains(key[1]) && entry.getValue() < minCost) {
-					minEdge = key;
-					minCost = entry.getValue();
-				}
-	        }
-			if (minEdge == null) {
-				for (Location l : p1Locations) {
-					if (!child.contains(l.getId()) && (distance = distances.get(lastLocId).get(l.getId())) < minCost) {
-						minEdge = new int[] {lastLocId, l.getId()};
-						minCost = distance;
-					}
-				}
+		for (int childSize = 2; childSize < nbCustomers; childSize++) {
+			if ((nextLocId = getBestParentalSuccessor(lastLocId)) == 0) {
+				nextLocId = getNearestUnvisited(lastLocId);
 			}
-			lastLocId = minEdge[1];
-			child.add(lastLocId);
+			visited.set(child[childSize] = lastLocId = nextLocId);
 		}
 		
 		return ga.reconstruct(child);
 	}
 	
-	private HashMap<int[], Double> getEdgesCosts(ArrayList<Location> locations) {
-		HashMap<int[], Double> edgesCosts = new HashMap<>();
-		int idSource, idDest;
-		double distance;
-		for (int i = 0; i < locations.size() - 1; i++) {
-			idSource = locations.get(i).getId();
-			idDest = locations.get(i + 1).getId();
-			distance = Util.getDistances().get(idSource).get(idDest);
-			edgesCosts.put(new int[] {idSource, idDest}, distance);
+	// The depot (0) marks the end of a giant tour
+	private void fillSuccessors(int[] tour, int[] successors) {
+		for (int i = 0; i < tour.length - 1; i++) {
+			successors[tour[i]] = tour[i + 1];
+		}
+		successors[tour[tour.length - 1]] = 0;
+	}
+	
+	private int getBestParentalSuccessor(int locId) {
+		int s1 = p1Successors[locId], s2 = p2Successors[locId];
+		boolean isS1Free = s1 != 0 && !visited.get(s1), isS2Free = s2 != 0 && !visited.get(s2);
+		if (isS1Free && isS2Free) {
+			return instance.getDistance(locId, s2) < instance.getDistance(locId, s1) ? s2 : s1;
+		}
+		return isS1Free ? s1 : (isS2Free ? s2 : 0);
+	}
+	
+	private int getNearestUnvisited(int locId) {
+		for (int neighborId : instance.getNearestNeighbors(locId)) {
+			if (!visited.get(neighborId)) {
+				return neighborId;
+			}
+		}
+		int nearestId = 0;
+		double distance, minDistance = Double.POSITIVE_INFINITY;
+		for (int id = visited.nextClearBit(1); id < instance.getNbLocations(); id = visited.nextClearBit(id + 1)) {
+			if ((distance = instance.getDistance(locId, id)) < minDistance) {
+				minDistance = distance;
+				nearestId = id;
+			}
 		}
-		return edgesCosts;
+		return nearestId;
 	}
 }
@@ -0,0 +1,366 @@
+package operators;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import cvrp_population.Individual;
+import cvrp_population.ProblemInstance;
+
+// Descent over granular neighborhoods: a move is only evaluated when it creates an edge
+// between a customer and one of its nearest neighbors, each pass is O(n * k) instead of O(n)
+// Moves: 2-opt, 2-opt* (tails exchange), relocate and Or-opt, exchange and cross-exchange of segments
+public class DescentOperator {
+
+	private static final double EPSILON = 1e-9;
+	// Longest segment moved by Or-opt and cross-exchange
+	public static final int MAX_SEGMENT_LENGTH = 3;
+
+	// Best improvement passes over at least this number of customers are split across the common fork-join pool
+	public static final int PARALLEL_THRESHOLD = 2000;
+	private static final int PARALLEL_TASK_SIZE = 250;
+
+	private static final int NO_MOVE = 0;
+	private static final int TWO_OPT = 1;
+	private static final int TAILS_SWAP = 2;
+	private static final int SEGMENTS_EXCHANGE = 3;
+
+	private ProblemInstance instance;
+	private TransformationOperator transformationOperator;
+	// The first improving move found is applied instead of the best one of the neighborhood
+	private boolean isFirstImprovement;
+	// With first improvement, each pass resumes the scan at the customer of the previous improving move
+	private int firstCustomerIdx;
+	private boolean isParallel;
+	private int[] tour;
+	private int[] routesStarts;
+	// For each customer of the current individual: route, position (depot at 0) and neighbors ids (0 for the depot),
+	// rebuilt at each pass in O(n) and only read by the evaluations; loads come from the prefixes cached by the individual
+	private int[] routesOf;
+	private int[] positions;
+	private int[] predecessors;
+	private int[] successors;
+	// Totals since the creation of the operator, read between two descents
+	private long nbPasses;
+	private long nbMoves;
+	private long nbEvaluatedMoves;
+
+	public DescentOperator(ProblemInstance instance, TransformationOperator transformationOperator) {
+		this.instance = instance;
+		this.transformationOperator = transformationOperator;
+		routesOf = new int[instance.getNbLocations()];
+		positions = new int[instance.getNbLocations()];
+		predecessors = new int[instance.getNbLocations()];
+		successors = new int[instance.getNbLocations()];
+	}
+
+	public Individual descent(Individual individual) {
+		Individual neighbor;
+		firstCustomerIdx = 0;
+		while ((neighbor = getImprovingNeighbor(individual)) != null) {
+			individual = neighbor;
+		}
+		return individual;
+	}
+
+	private Individual getImprovingNeighbor(Individual individual) {
+		Move bestMove;
+		indexRoutes(individual);
+		if (isParallel && !isFirstImprovement && tour.length >= PARALLEL_THRESHOLD) {
+			bestMove = ForkJoinPool.commonPool().invoke(new MovesSearch(individual, 0, tour.length));
+		} else {
+			bestMove = new Move();
+			int i;
+			for (i = 0; i < tour.length && !(isFirstImprovement && bestMove.type != NO_MOVE); i++) {
+				evaluateMoves(individual, tour[(firstCustomerIdx + i) % tour.length], bestMove);
+			}
+			if (isFirstImprovement) {
+				firstCustomerIdx = (firstCustomerIdx + i - 1) % tour.length;
+			}
+		}
+		nbPasses++;
+		nbEvaluatedMoves += bestMove.nbEvaluated;
+		if (bestMove.type != NO_MOVE) {
+			nbMoves++;
+		}
+		switch (bestMove.type) {
+		case TWO_OPT:
+			return transformationOperator.twoOptTransformation(individual, bestMove.vAIdx, bestMove.aFrom, bestMove.bFrom);
+		case TAILS_SWAP:
+			return transformationOperator.swapTransformation(individual, bestMove.vAIdx, bestMove.vBIdx, bestMove.aFrom, bestMove.bFrom);
+		case SEGMENTS_EXCHANGE:
+			return transformationOperator.segmentsExchangeTransformation(individual, bestMove.vAIdx, bestMove.aFrom, bestMove.aLength,
+					bestMove.vBIdx, bestMove.bFrom, bestMove.bLength);
+		default:
+			return null;
+		}
+	}
+
+	private void evaluateMoves(Individual individual, int customerId, Move bestMove) {
+		for (int neighborId : instance.getNearestNeighbors(customerId)) {
+			if (routesOf[customerId] == routesOf[neighborId]) {
+				evaluateTwoOpts(customerId, neighborId, bestMove);
+			} else {
+				evaluateTailsSwap(individual, customerId, neighborId, bestMove);
+				evaluateTailsSwap(individual, neighborId, customerId, bestMove);
+			}
+			evaluateSegmentsMoves(individual, customerId, neighborId, bestMove);
+		}
+	}
+
+	private void indexRoutes(Individual individual) {
+		int id, previousId;
+		tour = individual.getTour();
+		routesStarts = individual.getRoutesStarts();
+		for (int vIdx = 0; vIdx < individual.getNbVehicles(); vIdx++) {
+			previousId = 0;
+			for (int i = routesStarts[vIdx]; i < routesStarts[vIdx + 1]; i++) {
+				id = tour[i];
+				routesOf[id] = vIdx;
+				positions[id] = i - routesStarts[vIdx] + 1;
+				predecessors[id] = previousId;
+				successors[previousId] = id;
+				previousId = id;
+			}
+			successors[previousId] = 0;
+		}
+		successors[0] = 0;
+	}
+
+	// Reversing the locations just after the first customer up to the second one, or from the first one up to just before the second one
+	private void evaluateTwoOpts(int aId, int bId, Move bestMove) {
+		if (positions[aId] > positions[bId]) {
+			int tmp = aId;
+			aId = bId;
+			bId = tmp;
+		}
+		int vIdx = routesOf[aId], p = positions[aId], q = positions[bId];
+		if (q == p + 1) {
+			return;
+		}
+		double edge = instance.getDistance(aId, bId), delta;
+		bestMove.nbEvaluated += 2;
+		if ((delta = edge + instance.getDistance(successors[aId], successors[bId])
+				- instance.getDistance(aId, successors[aId]) - instance.getDistance(bId, successors[bId])) < bestMove.delta) {
+			bestMove.keep(delta, TWO_OPT, vIdx, p + 1, 0, vIdx, q, 0);
+		}
+		if ((delta = edge + instance.getDistance(predecessors[aId], predecessors[bId])
+				- instance.getDistance(predecessors[aId], aId) - instance.getDistance(predecessors[bId], bId)) < bestMove.delta) {
+			bestMove.keep(delta, TWO_OPT, vIdx, p, 0, vIdx, q - 1, 0);
+		}
+	}
+
+	// Exchange of the tails of the two routes so that the second customer follows the first one
+	private void evaluateTailsSwap(Individual individual, int uId, int wId, Move bestMove) {
+		int uVIdx = routesOf[uId], wVIdx = routesOf[wId], wPredId = predecessors[wId];
+		int uPrefixLoad = individual.getPrefixLoad(uVIdx, positions[uId]), wPredPrefixLoad = individual.getPrefixLoad(wVIdx, positions[wId] - 1);
+		int vFromIdx, vToIdx, locFromIdx, locToIdx, routeFromSize, routeToSize;
+		boolean isFromLast;
+		double delta;
+		if (uPrefixLoad + individual.getRouteLoad(wVIdx) - wPredPrefixLoad > instance.getMaxCapacity()
+				|| wPredPrefixLoad + individual.getRouteLoad(uVIdx) - uPrefixLoad > instance.getMaxCapacity()) {
+			return;
+		}
+		if (uVIdx < wVIdx) {
+			vFromIdx = uVIdx;
+			vToIdx = wVIdx;
+			locFromIdx = positions[uId];
+			locToIdx = positions[wId] - 1;
+		} else {
+			vFromIdx = wVIdx;
+			vToIdx = uVIdx;
+			locFromIdx = positions[wId] - 1;
+			locToIdx = positions[uId];
+		}
+		routeFromSize = individual.getRouteSize(vFromIdx);
+		routeToSize = individual.getRouteSize(vToIdx);
+		isFromLast = locFromIdx == routeFromSize - 2;
+		if (locFromIdx < 1 || locToIdx < (isFromLast ? 1 : 0) || locToIdx > routeToSize - (isFromLast ? 3 : 2)) {
+			return;
+		}
+		bestMove.nbEvaluated++;
+		if ((delta = instance.getDistance(uId, wId) + instance.getDistance(wPredId, successors[uId])
+				- instance.getDistance(uId, successors[uId]) - instance.getDistance(wPredId, wId)) < bestMove.delta) {
+			bestMove.keep(delta, TAILS_SWAP, vFromIdx, locFromIdx, 0, vToIdx, locToIdx, 0);
+		}
+	}
+
+	// Relocation of the segment starting at u just after w, or of the one ending at u just before w,
+	// and exchange of these segments with the ones following or preceding w
+	private void evaluateSegmentsMoves(Individual individual, int uId, int wId, Move bestMove) {
+		int uVIdx = routesOf[uId], wVIdx = routesOf[wId], uOffset = positions[uId] - 1, wOffset = positions[wId] - 1;
+		for (int length = 1; length <= MAX_SEGMENT_LENGTH; length++) {
+			evaluateSegmentsExchange(individual, uVIdx, uOffset, length, wVIdx, wOffset + 1, 0, bestMove);
+			evaluateSegmentsExchange(individual, uVIdx, uOffset - length + 1, length, wVIdx, wOffset, 0, bestMove);
+			for (int otherLength = 1; otherLength <= MAX_SEGMENT_LENGTH; otherLength++) {
+				evaluateSegmentsExchange(individual, uVIdx, uOffset, length, wVIdx, wOffset + 1, otherLength, bestMove);
+				evaluateSegmentsExchange(individual, uVIdx, uOffset - length + 1, length, wVIdx, wOffset - otherLength, otherLength, bestMove);
+			}
+		}
+	}
+
+	// Segments given by their route, offset of their first customer and length, an empty segment being an insertion point
+	private void evaluateSegmentsExchange(Individual individual, int vAIdx, int aFrom, int aLength, int vBIdx, int bFrom, int bLength, Move bestMove) {
+		int nbA = routesStarts[vAIdx + 1] - routesStarts[vAIdx], nbB = routesStarts[vBIdx + 1] - routesStarts[vBIdx];
+		if (aFrom < 0 || aFrom + aLength > nbA || bFrom < 0 || bFrom + bLength > nbB) {
+			return;
+		}
+		double delta;
+		if (vAIdx == vBIdx) {
+			if (aFrom > bFrom || (aFrom == bFrom && aLength > bLength)) {
+				int tmp = aFrom;
+				aFrom = bFrom;
+				bFrom = tmp;
+				tmp = aLength;
+				aLength = bLength;
+				bLength = tmp;
+			}
+			// Overlapping segments, or insertion point next to the other segment
+			if (aFrom + aLength > bFrom || (aLength == 0 && aFrom == bFrom) || (bLength == 0 && bFrom == aFrom + aLength)) {
+				return;
+			}
+			int prevId = getId(vAIdx, aFrom - 1), nextId = getId(vAIdx, bFrom + bLength);
+			int aFirstId = getFirstId(vAIdx, aFrom, aLength), aLastId = getId(vAIdx, aFrom + aLength - 1);
+			int bFirstId = getFirstId(vBIdx, bFrom, bLength), bLastId = getId(vBIdx, bFrom + bLength - 1);
+			int middleFirstId = getFirstId(vAIdx, aFrom + aLength, bFrom - aFrom - aLength), middleLastId = getId(vAIdx, bFrom - 1);
+			delta = getChainLength(prevId, bFirstId, bLastId, middleFirstId, middleLastId, aFirstId, aLastId, nextId)
+					- getChainLength(prevId, aFirstId, aLastId, middleFirstId, middleLastId, bFirstId, bLastId, nextId);
+		} else {
+			int aPrevId = getId(vAIdx, aFrom - 1), aNextId = getId(vAIdx, aFrom + aLength);
+			int bPrevId = getId(vBIdx, bFrom - 1), bNextId = getId(vBIdx, bFrom + bLength);
+			int aFirstId = getFirstId(vAIdx, aFrom, aLength), aLastId = getId(vAIdx, aFrom + aLength - 1);
+			int bFirstId = getFirstId(vBIdx, bFrom, bLength), bLastId = getId(vBIdx, bFrom + bLength - 1);
+			int aLoad = individual.getSegmentLoad(vAIdx, aFrom + 1, aFrom + aLength), bLoad = individual.getSegmentLoad(vBIdx, bFrom + 1, bFrom + bLength);
+			if (individual.getRouteLoad(vAIdx) - aLoad + bLoad > instance.getMaxCapacity()
+					|| individual.getRouteLoad(vBIdx) - bLoad + aLoad > instance.getMaxCapacity()) {
+				return;
+			}
+			delta = getChainLength(aPrevId, bFirstId, bLastId, -1, -1, -1, -1, aNextId) - getChainLength(aPrevId, aFirstId, aLastId, -1, -1, -1, -1, aNextId)
+					+ getChainLength(bPrevId, aFirstId, aLastId, -1, -1, -1, -1, bNextId) - getChainLength(bPrevId, bFirstId, bLastId, -1, -1, -1, -1, bNextId);
+			// A route left empty saves its vehicle
+			if ((aLength == nbA && bLength == 0) || (bLength == nbB && aLength == 0)) {
+				delta -= 1;
+			}
+		}
+		bestMove.nbEvaluated++;
+		if (delta < bestMove.delta) {
+			bestMove.keep(delta, SEGMENTS_EXCHANGE, vAIdx, aFrom, aLength, vBIdx, bFrom, bLength);
+		}
+	}
+
+	// Id of the customer at this offset of the route, 0 for the depot before or after it
+	private int getId(int vIdx, int offset) {
+		return offset < 0 || offset >= routesStarts[vIdx + 1] - routesStarts[vIdx] ? 0 : tour[routesStarts[vIdx] + offset];
+	}
+
+	// -1 for an empty segment
+	private int getFirstId(int vIdx, int offset, int length) {
+		return length == 0 ? -1 : tour[routesStarts[vIdx] + offset];
+	}
+
+	// Length of the edges linking the previous location, the non empty segments (first id -1 otherwise) and the next location
+	private double getChainLength(int prevId, int s1FirstId, int s1LastId, int s2FirstId, int s2LastId, int s3FirstId, int s3LastId, int nextId) {
+		double length = 0;
+		if (s1FirstId != -1) {
+			length += instance.getDistance(prevId, s1FirstId);
+			prevId = s1LastId;
+		}
+		if (s2FirstId != -1) {
+			length += instance.getDistance(prevId, s2FirstId);
+			prevId = s2LastId;
+		}
+		if (s3FirstId != -1) {
+			length += instance.getDistance(prevId, s3FirstId);
+			prevId = s3LastId;
+		}
+		return length + instance.getDistance(prevId, nextId);
+	}
+
+	public void setFirstImprovement(boolean isFirstImprovement) {
+		this.isFirstImprovement = isFirstImprovement;
+	}
+
+	public boolean isFirstImprovement() {
+		return isFirstImprovement;
+	}
+
+	public void setParallel(boolean isParallel) {
+		this.isParallel = isParallel;
+	}
+
+	public boolean isParallel() {
+		return isParallel;
+	}
+
+	// Passes over the customers, one more than the moves applied by each descent
+	public long getNbPasses() {
+		return nbPasses;
+	}
+
+	public long getNbMoves() {
+		return nbMoves;
+	}
+
+	public long getNbEvaluatedMoves() {
+		return nbEvaluatedMoves;
+	}
+
+	// Routes and locations of the 2-opt and tails exchange, or routes, offsets and lengths of the exchanged segments
+	private static class Move {
+
+		private double delta = -EPSILON;
+		private int type = NO_MOVE;
+		private int vAIdx;
+		private int aFrom;
+		private int aLength;
+		private int vBIdx;
+		private int bFrom;
+		private int bLength;
+		// Feasible moves whose delta was computed, kept or not
+		private long nbEvaluated;
+
+		private void keep(double delta, int type, int vAIdx, int aFrom, int aLength, int vBIdx, int bFrom, int bLength) {
+			this.delta = delta;
+			this.type = type;
+			this.vAIdx = vAIdx;
+			this.aFrom = aFrom;
+			this.aLength = aLength;
+			this.vBIdx = vBIdx;
+			this.bFrom = bFrom;
+			this.bLength = bLength;
+		}
+	}
+
+	// Best move of the customers of the tour between from and to (excluded), the earliest one on ties as in the sequential scan
+	private class MovesSearch extends RecursiveTask<Move> {
+
+		private static final long serialVersionUID = 1L;
+
+		private Individual individual;
+		private int from;
+		private int to;
+
+		private MovesSearch(Individual individual, int from, int to) {
+			this.individual = individual;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected Move compute() {
+			if (to - from <= PARALLEL_TASK_SIZE) {
+				Move bestMove = new Move();
+				for (int i = from; i < to; i++) {
+					evaluateMoves(individual, tour[i], bestMove);
+				}
+				return bestMove;
+			}
+			int middle = (from + to) >>> 1;
+			MovesSearch right = new MovesSearch(individual, middle, to);
+			right.fork();
+			Move leftMove = new MovesSearch(individual, from, middle).compute(), rightMove = right.join();
+			Move bestMove = leftMove.delta <= rightMove.delta ? leftMove : rightMove;
+			bestMove.nbEvaluated = leftMove.nbEvaluated + rightMove.nbEvaluated;
+			return bestMove;
+		}
+	}
+}
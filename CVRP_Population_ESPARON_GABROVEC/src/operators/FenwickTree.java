@@ -0,0 +1,64 @@
+package operators;
+
+// Cumulative weights over the population slots, O(log n) update and sampling
+public class FenwickTree {
+
+	private double[] values;
+	private double[] tree;
+	private int size;
+	private int highestPowerOfTwo;
+	private int nbUpdates;
+
+	public FenwickTree(double[] values) {
+		this.values = values.clone();
+		size = values.length;
+		tree = new double[size + 1];
+		highestPowerOfTwo = Integer.highestOneBit(Math.max(size, 1));
+		rebuild();
+	}
+
+	// Rebuilt from the values after size updates so that rounding errors cannot pile up
+	private void rebuild() {
+		int parent;
+		for (int i = 1; i <= size; i++) {
+			tree[i] = values[i - 1];
+		}
+		for (int i = 1; i <= size; i++) {
+			if ((parent = i + (i & -i)) <= size) {
+				tree[parent] += tree[i];
+			}
+		}
+		nbUpdates = 0;
+	}
+
+	public void set(int idx, double value) {
+		double delta = value - values[idx];
+		values[idx] = value;
+		for (int i = idx + 1; i <= size; i += i & -i) {
+			tree[i] += delta;
+		}
+		if (++nbUpdates >= size) {
+			rebuild();
+		}
+	}
+
+	public double getTotal() {
+		double total = 0;
+		for (int i = size; i > 0; i -= i & -i) {
+			total += tree[i];
+		}
+		return total;
+	}
+
+	// Index of the slot whose cumulative interval contains u, with 0 <= u < getTotal()
+	public int find(double u) {
+		int idx = 0;
+		for (int step = highestPowerOfTwo; step > 0; step >>= 1) {
+			if (idx + step <= size && tree[idx + step] <= u) {
+				idx += step;
+				u -= tree[idx];
+			}
+		}
+		return Math.min(idx, size - 1);
+	}
+}
@@ -1,12 +1,7 @@
 package operators;
 
-import java.util.ArrayList;
-import java.util.Collections;
-
 import cvrp_population.GeneticAlgorithm;
-import cvrp_population.Location;
-import cvrp_population.Util;
-import cvrp_population.Vehicle;
+import cvrp_population.Individual;
 
 public class MutationOperator {
 	
@@ -16,21 +11,31 @@ public class MutationOperator {
 		this.ga = ga;
 	}
 	
-	public ArrayList<Vehicle> inversionMutation(ArrayList<Vehicle> individual) {
-		ArrayList<Location> locations = Util.getLocations(individual);
-		int a = ga.getRand().nextInt(locations.size());
-		int b = ga.getRand().nextInt(locations.size());
-		Collections.reverse(locations.subList(Math.min(a, b), Math.max(a, b)));
-		return ga.reconstruct(locations);
+	public Individual inversionMutation(Individual individual) {
+		int[] tour = individual.getTour().clone();
+		int a = ga.getRand().nextInt(tour.length);
+		int b = ga.getRand().nextInt(tour.length);
+		int tmp;
+		for (int i = Math.min(a, b), j = Math.max(a, b) - 1; i < j; i++, j--) {
+			tmp = tour[i];
+			tour[i] = tour[j];
+			tour[j] = tmp;
+		}
+		return ga.reconstruct(tour);
 	}
 	
-	public ArrayList<Vehicle> displacementMutation(ArrayList<Vehicle> individual) {
-		ArrayList<Location> locations = Util.getLocations(individual);
-		int a = ga.getRand().nextInt(locations.size());
-		int b = ga.getRand().nextInt(locations.size());
-		ArrayList<Location> subList = new ArrayList<>(locations.subList(Math.min(a, b), Math.max(a, b)));
-		locations.removeAll(subList);
-		locations.addAll(ga.getRand().nextInt(locations.size()), subList);
-		return ga.reconstruct(locations);
+	public Individual displacementMutation(Individual individual) {
+		int[] tour = individual.getTour(), mutatedTour = new int[tour.length];
+		int a = ga.getRand().nextInt(tour.length);
+		int b = ga.getRand().nextInt(tour.length);
+		int minPoint = Math.min(a, b), subLength = Math.max(a, b) - minPoint;
+		int[] rest = new int[tour.length - subLength];
+		System.arraycopy(tour, 0, rest, 0, minPoint);
+		System.arraycopy(tour, minPoint + subLength, rest, minPoint, rest.length - minPoint);
+		int insertIdx = ga.getRand().nextInt(rest.length);
+		System.arraycopy(rest, 0, mutatedTour, 0, insertIdx);
+		System.arraycopy(tour, minPoint, mutatedTour, insertIdx, subLength);
+		System.arraycopy(rest, insertIdx, mutatedTour, insertIdx + subLength, rest.length - insertIdx);
+		return ga.reconstruct(mutatedTour);
 	}
 }
@@ -0,0 +1,124 @@
+package operators;
+
+import java.util.Arrays;
+
+import cvrp_population.Individual;
+import cvrp_population.ProblemInstance;
+
+// Carries the routes of an individual of a previous instance over to the current one
+// The removed customers are dropped, the new ones and those which overload their route get the cheapest insertion
+public class RepairOperator {
+
+	private ProblemInstance instance;
+	// Routes as linked lists of customers, 0 ending a route
+	private int[] successors;
+	private int[] routesFirsts;
+	private int[] routesLasts;
+	private int[] routesLoads;
+	private int nbRoutes;
+	private boolean[] isPlaced;
+	private int[] pending;
+
+	public RepairOperator(ProblemInstance instance) {
+		this.instance = instance;
+		successors = new int[instance.getNbLocations()];
+		routesFirsts = new int[instance.getNbLocations()];
+		routesLasts = new int[instance.getNbLocations()];
+		routesLoads = new int[instance.getNbLocations()];
+		isPlaced = new boolean[instance.getNbLocations()];
+		pending = new int[instance.getNbLocations()];
+	}
+
+	// newIds gives the id in the current instance of each id of the previous one, -1 if the customer was removed
+	public Individual repair(Individual previous, int[] newIds) {
+		int nbPending = 0, id;
+		nbRoutes = 0;
+		Arrays.fill(isPlaced, false);
+		for (int vIdx = 0; vIdx < previous.getNbVehicles(); vIdx++) {
+			routesFirsts[nbRoutes] = routesLasts[nbRoutes] = routesLoads[nbRoutes] = 0;
+			for (int locIdx = 1; locIdx < previous.getRouteSize(vIdx) - 1; locIdx++) {
+				if ((id = newIds[previous.getLocationId(vIdx, locIdx)]) == -1) {
+					continue;
+				}
+				if (routesLoads[nbRoutes] + instance.getDemand(id) > instance.getMaxCapacity()) {
+					pending[nbPending++] = id;
+				} else {
+					append(nbRoutes, id);
+				}
+				isPlaced[id] = true;
+			}
+			if (routesFirsts[nbRoutes] != 0) {
+				nbRoutes++;
+			}
+		}
+		for (id = 1; id < instance.getNbLocations(); id++) {
+			if (!isPlaced[id]) {
+				pending[nbPending++] = id;
+			}
+		}
+		for (int i = 0; i < nbPending; i++) {
+			insertCheapest(pending[i]);
+		}
+		return toIndividual();
+	}
+
+	private void append(int vIdx, int id) {
+		if (routesFirsts[vIdx] == 0) {
+			routesFirsts[vIdx] = id;
+		} else {
+			successors[routesLasts[vIdx]] = id;
+		}
+		successors[id] = 0;
+		routesLasts[vIdx] = id;
+		routesLoads[vIdx] += instance.getDemand(id);
+	}
+
+	// Between two consecutive locations of a route with enough capacity left, or alone in a new route
+	private void insertCheapest(int id) {
+		double minDelta = instance.getDistance(0, id) + instance.getDistance(id, 0) + 1, delta;
+		int bestVIdx = -1, bestPrevId = 0, prevId, nextId;
+		for (int vIdx = 0; vIdx < nbRoutes; vIdx++) {
+			if (routesLoads[vIdx] + instance.getDemand(id) > instance.getMaxCapacity()) {
+				continue;
+			}
+			prevId = 0;
+			do {
+				nextId = prevId == 0 ? routesFirsts[vIdx] : successors[prevId];
+				if ((delta = instance.getDistance(prevId, id) + instance.getDistance(id, nextId) - instance.getDistance(prevId, nextId)) < minDelta) {
+					minDelta = delta;
+					bestVIdx = vIdx;
+					bestPrevId = prevId;
+				}
+			} while ((prevId = nextId) != 0);
+		}
+		if (bestVIdx == -1) {
+			routesFirsts[nbRoutes] = routesLoads[nbRoutes] = 0;
+			append(nbRoutes++, id);
+			return;
+		}
+		if (bestPrevId == 0) {
+			successors[id] = routesFirsts[bestVIdx];
+			routesFirsts[bestVIdx] = id;
+		} else {
+			successors[id] = successors[bestPrevId];
+			successors[bestPrevId] = id;
+		}
+		if (successors[id] == 0) {
+			routesLasts[bestVIdx] = id;
+		}
+		routesLoads[bestVIdx] += instance.getDemand(id);
+	}
+
+	private Individual toIndividual() {
+		int[] tour = new int[instance.getNbCustomers()], routesStarts = new int[nbRoutes + 1];
+		int pos = 0;
+		for (int vIdx = 0; vIdx < nbRoutes; vIdx++) {
+			routesStarts[vIdx] = pos;
+			for (int id = routesFirsts[vIdx]; id != 0; id = successors[id]) {
+				tour[pos++] = id;
+			}
+		}
+		routesStarts[nbRoutes] = pos;
+		return new Individual(instance, tour, routesStarts);
+	}
+}
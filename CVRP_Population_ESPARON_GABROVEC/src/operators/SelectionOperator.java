@@ -3,77 +3,84 @@ package operators;
 import java.util.ArrayList;
 
 import cvrp_population.GeneticAlgorithm;
-import cvrp_population.Vehicle;
+import cvrp_population.Individual;
 
 public class SelectionOperator {
-	
+
 	private GeneticAlgorithm ga;
-	
+	private FenwickTree rouletteWheel;
+	private Individual[] winners;
+	private ArrayList<Individual> participants;
+	private double[] participantsWeights;
+
 	public SelectionOperator(GeneticAlgorithm ga) {
 		this.ga = ga;
+		winners = new Individual[2];
+		participants = new ArrayList<>();
+		participantsWeights = new double[0];
 	}
-	
-	public ArrayList<ArrayList<Vehicle>> tournamentSelection(int nbParticipants) {
-		ArrayList<ArrayList<Vehicle>> participants = new ArrayList<>(nbParticipants), population = ga.getPopulation();
-		ArrayList<Vehicle> participant;
-		ArrayList<Double> costs = new ArrayList<>();
-		double totalCost = 0, cost;
-		for (int i = 0; i < nbParticipants; i++) {
-			participant = population.get(ga.getRand().nextInt(population.size()));
-			participants.add(participant);
-			cost = ga.objectiveFunction(participant);
-			costs.add(cost);
-			totalCost += cost;
+
+	// Same repartition as the original intervals list: the slot i has the cost of the next individual as its weight,
+	// the last one the cost of the first individual
+	private double getWeight(ArrayList<Individual> individuals, int i) {
+		return individuals.get((i + 1) % individuals.size()).getCost();
+	}
+
+	public void initWeights() {
+		ArrayList<Individual> population = ga.getPopulation();
+		double[] weights = new double[population.size()];
+		for (int i = 0; i < weights.length; i++) {
+			weights[i] = getWeight(population, i);
 		}
-		ArrayList<double[]> probasRep = getProbasRepartition(costs, totalCost);
-		ArrayList<ArrayList<Vehicle>> winners = new ArrayList<>();
-		winners.add(getWinner(probasRep, participants));
-		winners.add(getWinner(probasRep, participants));
-		return winners;
+		rouletteWheel = new FenwickTree(weights);
+	}
+
+	// The weights are updated by the other operator only
+	public void shareWeights(SelectionOperator other) {
+		rouletteWheel = other.rouletteWheel;
+	}
+
+	// The individual of this slot gives its weight to the previous slot
+	public void updateWeight(int idx) {
+		ArrayList<Individual> population = ga.getPopulation();
+		int slot = (idx + population.size() - 1) % population.size();
+		rouletteWheel.set(slot, getWeight(population, slot));
 	}
-	
-	public ArrayList<ArrayList<Vehicle>> rouletteWheelSelection() {
-		ArrayList<Double> costs = new ArrayList<>();
-		double totalCost = 0, cost;
-		for (ArrayList<Vehicle> individual : ga.getPopulation()) {
-			cost = ga.objectiveFunction(individual);
-			costs.add(cost);
-			totalCost += cost;
+
+	public Individual[] tournamentSelection(int nbParticipants) {
+		ArrayList<Individual> population = ga.getPopulation();
+		if (participantsWeights.length != nbParticipants) {
+			participantsWeights = new double[nbParticipants];
+		}
+		participants.clear();
+		for (int i = 0; i < nbParticipants; i++) {
+			participants.add(population.get(ga.getRand().nextInt(population.size())));
+		}
+		double totalWeight = 0;
+		for (int i = 0; i < nbParticipants; i++) {
+			totalWeight += (participantsWeights[i] = getWeight(participants, i));
 		}
-		ArrayList<double[]> rouletteWheel = getProbasRepartition(costs, totalCost);
-		ArrayList<ArrayList<Vehicle>> winners = new ArrayList<>();
-		winners.add(getWinner(rouletteWheel, ga.getPopulation()));
-		winners.add(getWinner(rouletteWheel, ga.getPopulation()));
+		winners[0] = getWinner(totalWeight);
+		winners[1] = getWinner(totalWeight);
 		return winners;
 	}
-	
-	private ArrayList<double[]> getProbasRepartition(ArrayList<Double> costs, double totalCost) {
-		ArrayList<double[]> probasRep = new ArrayList<double[]>();
-		double p = 0;
-		double[] interval;
-		for (int i = 0; i < costs.size() - 1; i++) {
-			interval = new double[2];
-			interval[0] = p;
-			p += costs.get(i + 1) / totalCost;
-			interval[1] = p;
-			probasRep.add(interval);
-		}
-		probasRep.add(new double[] {p, 1d});
-		return probasRep;
+
+	public Individual[] rouletteWheelSelection() {
+		ArrayList<Individual> population = ga.getPopulation();
+		double totalWeight = rouletteWheel.getTotal();
+		winners[0] = population.get(rouletteWheel.find(ga.getRand().nextDouble() * totalWeight));
+		winners[1] = population.get(rouletteWheel.find(ga.getRand().nextDouble() * totalWeight));
+		return winners;
 	}
-	
-	private ArrayList<Vehicle> getWinner(ArrayList<double[]> probasRepartition, ArrayList<ArrayList<Vehicle>> participants) {
-		double[] interval;
-		ArrayList<Vehicle> winner = null;
-		double p = ga.getRand().nextDouble();
-		for (int j = 0; j < probasRepartition.size(); j++) {
-			interval = probasRepartition.get(j);
-			if (p >= interval[0] && p < interval[1]) {
-				winner = participants.get(j);
-				break;
+
+	private Individual getWinner(double totalWeight) {
+		double p = ga.getRand().nextDouble() * totalWeight;
+		for (int j = 0; j < participants.size() - 1; j++) {
+			if ((p -= participantsWeights[j]) < 0) {
+				return participants.get(j);
 			}
 		}
-		return winner;
+		return participants.get(participants.size() - 1);
 	}
-	
+
 }
@@ -0,0 +1,69 @@
+package operators;
+
+import cvrp_population.ProblemInstance;
+
+// Prins' Split: cuts the giant tour into feasible routes of minimal total cost
+// The capacity makes the candidate predecessors a sliding window, their minimum is kept in a monotone deque (Vidal, 2016)
+public class SplitOperator {
+
+	private ProblemInstance instance;
+	// For the t first customers of the tour: best cost, best last cut, load and distance travelled from the first one
+	private double[] potentials;
+	private int[] predecessors;
+	private int[] prefixLoads;
+	private double[] prefixDistances;
+	private int[] deque;
+
+	public SplitOperator(ProblemInstance instance) {
+		this.instance = instance;
+		int size = instance.getNbCustomers() + 1;
+		potentials = new double[size];
+		predecessors = new int[size];
+		prefixLoads = new int[size];
+		prefixDistances = new double[size];
+		deque = new int[size];
+	}
+
+	public int[] split(int[] tour) {
+		int nbCustomers = tour.length, front = 0, back = 0, nbRoutes = 0, i;
+		double predecessorCost;
+		prefixLoads[1] = instance.getDemand(tour[0]);
+		for (int t = 2; t <= nbCustomers; t++) {
+			prefixLoads[t] = prefixLoads[t - 1] + instance.getDemand(tour[t - 1]);
+			prefixDistances[t] = prefixDistances[t - 1] + instance.getDistance(tour[t - 2], tour[t - 1]);
+		}
+
+		deque[0] = 0;
+		for (int t = 1; t <= nbCustomers; t++) {
+			// t - 1 never leaves the window as any demand fits in a vehicle
+			while (prefixLoads[t] - prefixLoads[deque[front]] > instance.getMaxCapacity()) {
+				front++;
+			}
+			i = deque[front];
+			potentials[t] = getPredecessorCost(tour, i) + prefixDistances[t] + instance.getDistance(tour[t - 1], 0) + 1;
+			predecessors[t] = i;
+			if (t < nbCustomers) {
+				predecessorCost = getPredecessorCost(tour, t);
+				while (back >= front && getPredecessorCost(tour, deque[back]) >= predecessorCost) {
+					back--;
+				}
+				deque[++back] = t;
+			}
+		}
+
+		for (int t = nbCustomers; t > 0; t = predecessors[t]) {
+			nbRoutes++;
+		}
+		int[] routesStarts = new int[nbRoutes + 1];
+		routesStarts[nbRoutes] = nbCustomers;
+		for (int t = nbCustomers, v = nbRoutes - 1; t > 0; t = predecessors[t], v--) {
+			routesStarts[v] = predecessors[t];
+		}
+		return routesStarts;
+	}
+
+	// Part of the cost of a route starting after the i first customers which only depends on i
+	private double getPredecessorCost(int[] tour, int i) {
+		return potentials[i] + instance.getDistance(0, tour[i]) - prefixDistances[i + 1];
+	}
+}
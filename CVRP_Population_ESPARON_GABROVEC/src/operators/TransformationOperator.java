@@ -1,65 +1,155 @@
 package operators;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 
-import cvrp_population.GeneticAlgorithm;
-import cvrp_population.Location;
-import cvrp_population.Util;
-import cvrp_population.Vehicle;
+import cvrp_population.Individual;
+import cvrp_population.ProblemInstance;
 
 public class TransformationOperator {
-	
-	private GeneticAlgorithm gen;
-	
-	public TransformationOperator(GeneticAlgorithm gen) {
-		this.gen = gen;
+
+	private ProblemInstance instance;
+
+	public TransformationOperator(ProblemInstance instance) {
+		this.instance = instance;
+	}
+
+	// Exchanges the tails of two routes (vFromIdx < vToIdx) after locFromIdx and locToIdx
+	public Individual swapTransformation(Individual individual, int vFromIdx, int vToIdx, int locFromIdx, int locToIdx) {
+		int[] tour = individual.getTour(), routesStarts = individual.getRoutesStarts();
+		int[] newTour = new int[tour.length], newRoutesStarts = routesStarts.clone();
+		int fromStart = routesStarts[vFromIdx], fromEnd = routesStarts[vFromIdx + 1];
+		int toStart = routesStarts[vToIdx], toEnd = routesStarts[vToIdx + 1];
+		int fromId = individual.getLocationId(vFromIdx, locFromIdx), fromNextId = individual.getLocationId(vFromIdx, locFromIdx + 1);
+		int toId = individual.getLocationId(vToIdx, locToIdx), toNextId = individual.getLocationId(vToIdx, locToIdx + 1);
+		long newHash = individual.getHash() + instance.getEdgeKey(fromId, toNextId) + instance.getEdgeKey(toId, fromNextId)
+				- instance.getEdgeKey(fromId, fromNextId) - instance.getEdgeKey(toId, toNextId);
+		int fromCut = fromStart + locFromIdx, toCut = toStart + locToIdx, pos = fromCut;
+		System.arraycopy(tour, 0, newTour, 0, fromCut);
+		System.arraycopy(tour, toCut, newTour, pos, toEnd - toCut);
+		pos += toEnd - toCut;
+		System.arraycopy(tour, fromEnd, newTour, pos, toStart - fromEnd);
+		int shift = pos - fromEnd;
+		for (int v = vFromIdx + 1; v <= vToIdx; v++) {
+			newRoutesStarts[v] += shift;
+		}
+		pos += toStart - fromEnd;
+		System.arraycopy(tour, toStart, newTour, pos, toCut - toStart);
+		pos += toCut - toStart;
+		System.arraycopy(tour, fromCut, newTour, pos, fromEnd - fromCut);
+		pos += fromEnd - fromCut;
+		System.arraycopy(tour, toEnd, newTour, pos, tour.length - toEnd);
+		return buildNeighbor(individual, newTour, newRoutesStarts, vFromIdx, locFromIdx, vToIdx, locToIdx, -1, newHash);
+	}
+
+	// Reverses the route between locFromIdx and locToIdx included
+	public Individual twoOptTransformation(Individual individual, int vIdx, int locFromIdx, int locToIdx) {
+		int[] newTour = individual.getTour().clone(), routesStarts = individual.getRoutesStarts();
+		int prevId = individual.getLocationId(vIdx, locFromIdx - 1), fromId = individual.getLocationId(vIdx, locFromIdx);
+		int toId = individual.getLocationId(vIdx, locToIdx), nextId = individual.getLocationId(vIdx, locToIdx + 1), tmp;
+		long newHash = individual.getHash() + instance.getEdgeKey(prevId, toId) + instance.getEdgeKey(fromId, nextId)
+				- instance.getEdgeKey(prevId, fromId) - instance.getEdgeKey(toId, nextId);
+		for (int i = routesStarts[vIdx] + locFromIdx - 1, j = routesStarts[vIdx] + locToIdx - 1; i < j; i++, j--) {
+			tmp = newTour[i];
+			newTour[i] = newTour[j];
+			newTour[j] = tmp;
+		}
+		return buildNeighbor(individual, newTour, routesStarts, vIdx, locFromIdx - 1, vIdx, locFromIdx - 1, -1, newHash);
+	}
+
+	// Exchanges the segment of aLength customers from the offset aFrom of the route vAIdx with the one of bLength customers
+	// from bFrom of vBIdx, an empty segment being an insertion point; segments of the same route must not overlap
+	// A route left empty is removed
+	public Individual segmentsExchangeTransformation(Individual individual, int vAIdx, int aFrom, int aLength, int vBIdx, int bFrom, int bLength) {
+		if (vAIdx == vBIdx && (aFrom > bFrom || (aFrom == bFrom && aLength > bLength))) {
+			return segmentsExchangeTransformation(individual, vBIdx, bFrom, bLength, vAIdx, aFrom, aLength);
+		}
+		int[] tour = individual.getTour(), routesStarts = individual.getRoutesStarts();
+		int[] newTour = new int[tour.length];
+		int aStart = routesStarts[vAIdx] + aFrom, bStart = routesStarts[vBIdx] + bFrom, nbRoutes = 0, pos = 0, start;
+		int[] newRoutesStarts = new int[individual.getNbVehicles() + 1];
+		for (int v = 0; v < individual.getNbVehicles(); v++) {
+			start = pos;
+			if (v == vAIdx && v == vBIdx) {
+				pos = copy(tour, routesStarts[v], aStart, newTour, pos);
+				pos = copy(tour, bStart, bStart + bLength, newTour, pos);
+				pos = copy(tour, aStart + aLength, bStart, newTour, pos);
+				pos = copy(tour, aStart, aStart + aLength, newTour, pos);
+				pos = copy(tour, bStart + bLength, routesStarts[v + 1], newTour, pos);
+			} else if (v == vAIdx) {
+				pos = copy(tour, routesStarts[v], aStart, newTour, pos);
+				pos = copy(tour, bStart, bStart + bLength, newTour, pos);
+				pos = copy(tour, aStart + aLength, routesStarts[v + 1], newTour, pos);
+			} else if (v == vBIdx) {
+				pos = copy(tour, routesStarts[v], bStart, newTour, pos);
+				pos = copy(tour, aStart, aStart + aLength, newTour, pos);
+				pos = copy(tour, bStart + bLength, routesStarts[v + 1], newTour, pos);
+			} else {
+				pos = copy(tour, routesStarts[v], routesStarts[v + 1], newTour, pos);
+			}
+			if (pos > start) {
+				newRoutesStarts[nbRoutes++] = start;
+			}
+		}
+		newRoutesStarts[nbRoutes] = pos;
+		if (nbRoutes < individual.getNbVehicles()) {
+			newRoutesStarts = Arrays.copyOf(newRoutesStarts, nbRoutes + 1);
+		}
+
+		int removedVIdx = isEmptied(individual, vAIdx, vAIdx, aLength, vBIdx, bLength) ? vAIdx
+				: isEmptied(individual, vBIdx, vAIdx, aLength, vBIdx, bLength) ? vBIdx : -1;
+		long newHash = individual.getHash() + getRouteHashChange(individual, newTour, newRoutesStarts, vAIdx, removedVIdx);
+		if (vBIdx != vAIdx) {
+			newHash += getRouteHashChange(individual, newTour, newRoutesStarts, vBIdx, removedVIdx);
+		}
+		return buildNeighbor(individual, newTour, newRoutesStarts, vAIdx, aFrom, vBIdx, bFrom, removedVIdx, newHash);
+	}
+
+	// Change of the hash from the old route vIdx to its new version
+	private long getRouteHashChange(Individual individual, int[] newTour, int[] newRoutesStarts, int vIdx, int removedVIdx) {
+		int[] routesStarts = individual.getRoutesStarts();
+		long change = -Individual.computeRouteHash(instance, individual.getTour(), routesStarts[vIdx], routesStarts[vIdx + 1]);
+		if (vIdx != removedVIdx) {
+			int newVIdx = removedVIdx != -1 && removedVIdx < vIdx ? vIdx - 1 : vIdx;
+			change += Individual.computeRouteHash(instance, newTour, newRoutesStarts[newVIdx], newRoutesStarts[newVIdx + 1]);
+		}
+		return change;
+	}
+
+	private boolean isEmptied(Individual individual, int v, int vAIdx, int aLength, int vBIdx, int bLength) {
+		return vAIdx != vBIdx && (v == vAIdx ? bLength == 0 && aLength == individual.getRouteSize(v) - 2 : aLength == 0 && bLength == individual.getRouteSize(v) - 2);
+	}
+
+	// Routes other than vAIdx and vBIdx are unchanged (but may be shifted), the aHead and bHead first customers of these two keep their positions
+	// in their route: their prefix loads are copied and only the following ones are recomputed
+	private Individual buildNeighbor(Individual individual, int[] newTour, int[] newRoutesStarts, int vAIdx, int aHead, int vBIdx, int bHead,
+			int removedVIdx, long newHash) {
+		int[] routesStarts = individual.getRoutesStarts(), newPrefixLoads = new int[newTour.length];
+		double[] newRoutesLengths = new double[newRoutesStarts.length - 1];
+		int[] newRoutesLoads = new int[newRoutesStarts.length - 1];
+		int head, start, end;
+		for (int v = 0, newV = 0; v < individual.getNbVehicles(); v++) {
+			if (v == removedVIdx) {
+				continue;
+			}
+			start = newRoutesStarts[newV];
+			end = newRoutesStarts[newV + 1];
+			head = v == vAIdx ? aHead : v == vBIdx ? bHead : end - start;
+			System.arraycopy(individual.getPrefixLoads(), routesStarts[v], newPrefixLoads, start, head);
+			if (v == vAIdx || v == vBIdx) {
+				Individual.computePrefixLoads(instance, newTour, start, start + head, end, newPrefixLoads);
+				newRoutesLengths[newV] = Individual.computeRouteLength(instance, newTour, start, end);
+				newRoutesLoads[newV] = newPrefixLoads[end - 1];
+			} else {
+				newRoutesLengths[newV] = individual.getRouteLength(v);
+				newRoutesLoads[newV] = individual.getRouteLoad(v);
+			}
+			newV++;
+		}
+		return new Individual(newTour, newRoutesStarts, newRoutesLengths, newRoutesLoads, newPrefixLoads, newHash);
+	}
+
+	private int copy(int[] tour, int from, int to, int[] newTour, int pos) {
+		System.arraycopy(tour, from, newTour, pos, to - from);
+		return pos + to - from;
 	}
-	
-	public ArrayList<Vehicle> swapTransformation(ArrayList<Vehicle> individual, ArrayList<Location> routeFrom, ArrayList<Location> routeTo, int vFromIdx, int vToIdx, int locFromIdx, int locToIdx) {
-		Vehicle newVFrom = new Vehicle(gen.getMaxCapacity());
-		Vehicle newVTo = new Vehicle(gen.getMaxCapacity());
-		int i;
-        for (i = 0; i <= locFromIdx; i++) {
-        	newVFrom.routeLocation(routeFrom.get(i));
-        }
-        for (i = locToIdx + 1; i < routeTo.size(); i++) {
-        	if (!newVFrom.routeLocation(routeTo.get(i))) {
-        		return null;
-        	}
-        }
-        
-        for (i = 0; i <= locToIdx; i++) {
-        	newVTo.routeLocation(routeTo.get(i));
-        }
-        for (i = locFromIdx + 1; i < routeFrom.size(); i++) {
-        	if (!newVTo.routeLocation(routeFrom.get(i))) {
-        		return null;
-        	}
-        }
-        ArrayList<Vehicle> newIndividual = Util.createDeepCopyIndividual(individual);
-        newIndividual.set(vFromIdx, newVFrom);
-        newIndividual.set(vToIdx, newVTo);
-		return newIndividual;
-    }
-	
-	public ArrayList<Vehicle> twoOptTransformation(ArrayList<Vehicle> individual, int vIdx, int locFromIdx, int locToIdx) {
-		Vehicle newV = new Vehicle(gen.getMaxCapacity());
-		ArrayList<Location> route = individual.get(vIdx).getRoute();
-		
-		int i;
-        for (i = 0; i <= locFromIdx - 1; i++) {
-            newV.routeLocation(route.get(i));
-        }
-        int dcr = 0;
-        for (i = locFromIdx; i <= locToIdx; i++) {
-            newV.routeLocation(route.get(locToIdx - dcr));
-            dcr++;
-        }
-        for (i = locToIdx + 1; i < route.size(); i++) {
-        	newV.routeLocation(route.get(i));
-        }
-        ArrayList<Vehicle> newIndividual = Util.createDeepCopyIndividual(individual);
-        newIndividual.set(vIdx, newV);
-        return newIndividual;
-    }
 }